@@ -4,9 +4,12 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.msv.vt100.TerminalApp;
 import org.msv.vt100.core.Cursor;
+import org.msv.vt100.core.ScreenPatternIndex;
+import org.msv.vt100.core.ScreenSnapshot;
 import org.msv.vt100.ssh.SSHManager;
 import org.msv.vt100.util.CellValueExtractor;
 import org.msv.vt100.util.ExcelOrderData;
+import org.msv.vt100.util.ScreenField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +23,9 @@ public class DeliveryDateProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(DeliveryDateProcessor.class);
 
+    private static final ScreenField EXISTING_DELIVERY_DATE = ScreenField.at("Liefertermin", 9, 37, 40, ScreenField.Trim.BOTH);
+    private static final ScreenField COMMENT_NUMBER = ScreenField.at("Kommentarnummer", 22, 2, 4, ScreenField.Trim.NONE);
+
     private final SSHManager sshConnector;
     private final Cursor cursor;
     private final TerminalApp terminalApp;
@@ -77,12 +83,12 @@ public class DeliveryDateProcessor {
         boolean postPosSeen = waitUntil("Post-Position state",
                 () -> {
                     terminalApp.checkForPause();
-                    String c = cursor.getCursorPosition();
-                    String s = getScreenText();
+                    var s = screenMatches();
+                    String c = s.snapshot().getCursorPosition();
                     return s.contains("Keine Bestellware")
-                            || isBitteAusloesen()
+                            || isBitteAusloesen(s)
                             || (c.equals("9,36")  && s.contains("Vorgesehene WE-Filiale"))
-                            || screenTextDetector.isWareneingangDisplayed()
+                            || screenTextDetector.isWareneingangDisplayed(s)
                             || s.contains("Eingangsrechnung")
                             || (c.equals("13,74") && s.contains("OK (J/N/L/T/G)"));
                 });
@@ -90,12 +96,12 @@ public class DeliveryDateProcessor {
             throw new IOException("Timeout nach Eingabe der Positionsnummer (kein sinnvolles Zustand)");
         }
 
-        if (getScreenText().contains("Keine Bestellware")) {
+        if (screenMatches().contains("Keine Bestellware")) {
             log.info("INFO: 'Keine Bestellware' erkannt – warte bis die Meldung verschwindet.");
             waitUntil("'Keine Bestellware' verschwindet",
                     () -> {
                         terminalApp.checkForPause();
-                        return !getScreenText().contains("Keine Bestellware");
+                        return !screenMatches().contains("Keine Bestellware");
                     });
             log.info("INFO: 'Keine Bestellware' verschwunden – breche Verarbeitung dieses Auftrags ab.");
             navigateToStartPage();
@@ -105,14 +111,15 @@ public class DeliveryDateProcessor {
         if (resolveBitteAusloesenIfPresent()) {
             log.info("'Bitte ausloesen' wurde bereinigt (Helper).");
         }
-        String afterPos = getScreenText();
-        if (screenTextDetector.isWareneingangDisplayed() || afterPos.contains("Eingangsrechnung")) {
+        var afterPos = screenMatches();
+        if (screenTextDetector.isWareneingangDisplayed(afterPos) || afterPos.contains("Eingangsrechnung")) {
             log.info("INFO: Bestellung wurde bereits geliefert. Verarbeitung wird abgebrochen.");
             navigateToStartPage();
             return;
         }
 
-        if (cursor.getCursorPosition().equals("13,74") && getScreenText().contains("OK (J/N/L/T/G)")) {
+        var okPrompt = screenMatches();
+        if (okPrompt.snapshot().getCursorPosition().equals("13,74") && okPrompt.contains("OK (J/N/L/T/G)")) {
             if (!waitForOkPromptAndCompareDate(deliveryDate)) {
                 return;
             }
@@ -130,7 +137,7 @@ public class DeliveryDateProcessor {
     private void ensureOrderFieldSmart(String orderNumber) throws IOException, InterruptedException {
         if (orderNumber == null || orderNumber.isEmpty()) return;
 
-        String screenText = getScreenText();
+        var screenText = screenMatches();
         boolean is5 = orderNumber.length() == 5;
         boolean is6 = orderNumber.length() == 6;
         boolean hasAufNr = screenText.contains("Auf-Nr");
@@ -151,16 +158,18 @@ public class DeliveryDateProcessor {
 
     private void waitForStartPageStable() throws InterruptedException {
         final long deadline = System.nanoTime() + 300_000_000L;
-        String prev = captureStartAnchors();
-        String prevCur = cursor.getCursorPosition();
+        var before = screenTextDetector.snapshot();
+        String prev = captureStartAnchors(before);
+        String prevCur = before.getCursorPosition();
 
         while (System.nanoTime() < deadline) {
             terminalApp.checkForPause();
             Thread.sleep(80);
 
-            String curSnap = captureStartAnchors();
-            String curCur  = cursor.getCursorPosition();
-            String text    = getScreenText();
+            var snap = screenTextDetector.snapshot();
+            String curSnap = captureStartAnchors(snap);
+            String curCur  = snap.getCursorPosition();
+            String text    = snap.getText();
 
             if (isStartPage(text, curCur) && curCur.equals(prevCur) && curSnap.equals(prev)) {
                 log.debug("Startseite stabil bestätigt (anchors).");
@@ -177,9 +186,9 @@ public class DeliveryDateProcessor {
 
         boolean success = waitUntil("Cursor = 13,74 & Text enthält 'OK (J/N/L/T/G)'", () -> {
             terminalApp.checkForPause();
-            String currCursor = cursor.getCursorPosition();
-            String screenText = getScreenText();
-            log.debug("[DEBUG] Cursor bei OK-Bedingung: {}, sampleTextLen={}", currCursor, screenText.length());
+            var screenText = screenMatches();
+            String currCursor = screenText.snapshot().getCursorPosition();
+            log.debug("[DEBUG] Cursor bei OK-Bedingung: {}, Bildschirmversion={}", currCursor, screenText.getVersion());
             return currCursor.equals("13,74") && screenText.contains("OK (J/N/L/T/G)");
         });
 
@@ -200,7 +209,7 @@ public class DeliveryDateProcessor {
 
 
             
-            String existingRaw = CellValueExtractor.extractCells(terminalApp.getScreenBuffer(), 9, 37, 38, 39, 40).trim();
+            String existingRaw = EXISTING_DELIVERY_DATE.read(terminalApp.getScreenBuffer().snapshot());
             String existingDigits = existingRaw.replaceAll("[^0-9]", "");
             boolean dateMissing = existingDigits.length() < 2;
 
@@ -225,7 +234,7 @@ public class DeliveryDateProcessor {
 
         boolean updated = waitUntil("Bildschirm ändert sich nach 'N'", () -> {
             terminalApp.checkForPause();
-            return !getScreenText().contains("OK (J/N/L/T/G)");
+            return !screenMatches().contains("OK (J/N/L/T/G)");
         });
 
         if (!updated) {
@@ -250,48 +259,49 @@ public class DeliveryDateProcessor {
         int noProgressStreak = 0;
 
         while (System.nanoTime() < hardDeadline) {
-            String snapBefore = captureProgressSnapshot();
-            String curBefore  = cursor.getCursorPosition();
+            var before = screenTextDetector.snapshot();
+            String snapBefore = captureProgressSnapshot(before);
+            String curBefore  = before.getCursorPosition();
 
             sshConnector.send("\r");
 
             boolean reacted = waitUntil("ENTER reaction bei 'Bitte ausloesen'", () -> {
                 terminalApp.checkForPause();
-                String s = getScreenText();
-                String c = cursor.getCursorPosition();
-                String snapAfter = captureProgressSnapshot();
+                var s = screenMatches();
+                String c = s.snapshot().getCursorPosition();
+                String snapAfter = captureProgressSnapshot(s.snapshot());
 
                 if ((c.equals("9,36")  && s.contains("Vorgesehene WE-Filiale")) ||
                         (c.equals("13,74") && s.contains("OK (J/N/L/T/G)")) ||
                         (s.contains("Eingaben OK") &&
                                 (c.equals("23,75") || c.equals("23,76") || c.equals("23,77") || c.equals("23,78"))) ||
                         (c.equals("22,2")  && s.contains("Interner Text")) ||
-                        screenTextDetector.isWareneingangDisplayed() ||
+                        screenTextDetector.isWareneingangDisplayed(s) ||
                         s.contains("Eingangsrechnung")) {
                     return true;
                 }
 
-                if (!isBitteAusloesen()) return true;
+                if (!isBitteAusloesen(s)) return true;
 
                 return !snapAfter.equals(snapBefore) || !c.equals(curBefore);
             });
             if (!reacted) break;
 
-            String s = getScreenText();
-            String c = cursor.getCursorPosition();
+            var s = screenMatches();
+            String c = s.snapshot().getCursorPosition();
             if ((c.equals("9,36")  && s.contains("Vorgesehene WE-Filiale")) ||
                     (c.equals("13,74") && s.contains("OK (J/N/L/T/G)")) ||
                     (s.contains("Eingaben OK") &&
                             (c.equals("23,75") || c.equals("23,76") || c.equals("23,77") || c.equals("23,78"))) ||
                     (c.equals("22,2")  && s.contains("Interner Text")) ||
-                    screenTextDetector.isWareneingangDisplayed() ||
+                    screenTextDetector.isWareneingangDisplayed(s) ||
                     s.contains("Eingangsrechnung") ||
-                    !isBitteAusloesen()) {
+                    !isBitteAusloesen(s)) {
                 return true;
             }
 
-            String snapAfter = captureProgressSnapshot();
-            String curAfter  = cursor.getCursorPosition();
+            String snapAfter = captureProgressSnapshot(s.snapshot());
+            String curAfter  = c;
             boolean progressed = !snapAfter.equals(snapBefore) || !curAfter.equals(curBefore);
 
             if (progressed) {
@@ -305,19 +315,23 @@ public class DeliveryDateProcessor {
     }
 
     private boolean isBitteAusloesen() {
-        String c = cursor.getCursorPosition();
-        String s = getScreenText();
-        return c.startsWith("24,") && s.contains("Bitte ausloesen");
+        return isBitteAusloesen(screenMatches());
+    }
+
+    /** Checks cursor and text of the one screen {@code s} was matched on. */
+    private boolean isBitteAusloesen(ScreenPatternIndex.Matches s) {
+        return s.snapshot().getCursorPosition().startsWith("24,") && s.contains("Bitte ausloesen");
     }
 
     private String captureProgressSnapshot() {
-        var buf = terminalApp.getScreenBuffer();
+        return captureProgressSnapshot(terminalApp.getScreenBuffer().snapshot());
+    }
+
+    private String captureProgressSnapshot(ScreenSnapshot snap) {
         int rows = 24, cols = 80;
         StringBuilder sb = new StringBuilder(rows * cols);
         for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                sb.append(buf.getCell(r, c).character());
-            }
+            sb.append(snap.getText(r, 0, cols - 1));
         }
         return sb.toString();
     }
@@ -327,17 +341,17 @@ public class DeliveryDateProcessor {
 
         waitUntil("Cursor=24,xx & 'Bitte ausloesen' OR Cursor=9,36 & 'Vorgesehene WE-Filiale'", () -> {
             terminalApp.checkForPause();
-            String c = cursor.getCursorPosition();
-            String s = getScreenText();
-            return isBitteAusloesen() || (c.equals("9,36") && s.contains("Vorgesehene WE-Filiale"));
+            var s = screenMatches();
+            String c = s.snapshot().getCursorPosition();
+            return isBitteAusloesen(s) || (c.equals("9,36") && s.contains("Vorgesehene WE-Filiale"));
         });
 
         resolveBitteAusloesenIfPresent();
 
         boolean success = waitUntil("Cursor = 9,36 & Text enthält 'Vorgesehene WE-Filiale'", () -> {
             terminalApp.checkForPause();
-            String currCursor = cursor.getCursorPosition();
-            String screenText = getScreenText();
+            var screenText = screenMatches();
+            String currCursor = screenText.snapshot().getCursorPosition();
             log.debug("[DEBUG] Cursor bei WE-Filiale: {};", currCursor);
             return currCursor.equals("9,36") && screenText.contains("Vorgesehene WE-Filiale");
         });
@@ -355,8 +369,8 @@ public class DeliveryDateProcessor {
 
         boolean success = waitUntil("Warnung 'Bestell-Termin um ... ueberschritten!'", () -> {
             terminalApp.checkForPause();
-            String screenText = getScreenText();
-            log.debug("[DEBUG] Während 'Bestell-Termin'-Prüfung: {}", screenText);
+            var screenText = screenMatches();
+            log.debug("[DEBUG] Während 'Bestell-Termin'-Prüfung: {}", screenText.snapshot().getText());
             return !(screenText.contains("Bestell-Termin um ") && screenText.contains("ueberschritten!"));
         });
 
@@ -393,9 +407,9 @@ public class DeliveryDateProcessor {
 
         boolean success = waitUntil("Cursor = 14,31 & Text enthält 'Erfassen AB-Nummer'", () -> {
             terminalApp.checkForPause();
-            String cursorPosition = cursor.getCursorPosition();
-            String screenText = getScreenText();
-            log.debug("[DEBUG] Cursor = {}, Text = {}", cursorPosition, screenText);
+            var screenText = screenMatches();
+            String cursorPosition = screenText.snapshot().getCursorPosition();
+            log.debug("[DEBUG] Cursor = {}, Text = {}", cursorPosition, screenText.snapshot().getText());
             return cursorPosition.equals("14,31") && screenText.contains("Erfassen AB-Nummer");
         });
 
@@ -435,11 +449,12 @@ public class DeliveryDateProcessor {
                     "Eingaben OK ODER Bitte ausloesen ODER Interner Text",
                     () -> {
                         terminalApp.checkForPause();
-                        String c = cursor.getCursorPosition();
-                        String s = getScreenText();
+                        var m = screenMatches();
+                        String c = m.snapshot().getCursorPosition();
+                        String s = m.snapshot().getText();
                         boolean eingabenOk = s.contains("Eingaben OK") &&
                                 (c.equals("23,75") || c.equals("23,76") || c.equals("23,77") || c.equals("23,78"));
-                        boolean ausloesen  = isBitteAusloesen();
+                        boolean ausloesen  = isBitteAusloesen(m);
                         boolean interner   = isCursorAt22x(c) && norm(s).contains("Interner Text");
                         return eingabenOk || ausloesen || interner;
                     }
@@ -449,10 +464,11 @@ public class DeliveryDateProcessor {
                 throw new IOException("Timeout beim Warten auf 'Eingaben OK' / 'Bitte ausloesen' / 'Interner Text'");
             }
 
-            String c = cursor.getCursorPosition();
-            String s = getScreenText();
+            var m = screenMatches();
+            String c = m.snapshot().getCursorPosition();
+            String s = m.snapshot().getText();
 
-            if (isBitteAusloesen()) {
+            if (isBitteAusloesen(m)) {
                 log.info("'Bitte ausloesen' vor 'Z' erkannt — bereinige...");
                 resolveBitteAusloesenIfPresent();
                 continue;
@@ -515,7 +531,7 @@ public class DeliveryDateProcessor {
 
         boolean nummerErkannt = waitUntil("Dreistellige Zahl in Zeile 22 erkannt", () -> {
             terminalApp.checkForPause();
-            String numberText = CellValueExtractor.extractCells(terminalApp.getScreenBuffer(), 22,  2, 3, 4);
+            String numberText = COMMENT_NUMBER.read(terminalApp.getScreenBuffer().snapshot());
             log.info("Extrahierte Zahl: {}", numberText);
             return numberText.matches("\\d{3}");
         });
@@ -578,8 +594,9 @@ public class DeliveryDateProcessor {
 
         boolean textKZBei22_2 = waitUntil("Cursor = 22,2 & Text enthält 'Text-KZ'", () -> {
             terminalApp.checkForPause();
-            String cursorPosition = cursor.getCursorPosition();
-            String screenText = getScreenText();
+            var snap = screenTextDetector.snapshot();
+            String cursorPosition = snap.getCursorPosition();
+            String screenText = snap.getText();
             return cursorPosition.equals("22,2") && norm(screenText).contains("Text-KZ");
         });
         if (!textKZBei22_2) throw new IOException("Timeout bei der zweiten 'Text-KZ'-Eingabe");
@@ -605,19 +622,16 @@ public class DeliveryDateProcessor {
         while (true) {
             boolean gesehen = waitUntil("'Eingaben OK' oder 'Bitte ausloesen'", () -> {
                 terminalApp.checkForPause();
-                String s = getScreenText();
-                String c = cursor.getCursorPosition();
+                var s = screenMatches();
+                String c = s.snapshot().getCursorPosition();
                 boolean ok = s.contains("Eingaben OK") &&
                         (c.equals("23,75") || c.equals("23,76") || c.equals("23,77") || c.equals("23,78"));
-                boolean ausloesen = isBitteAusloesen();
+                boolean ausloesen = isBitteAusloesen(s);
                 return ok || ausloesen;
             });
 
             if (!gesehen) throw new IOException("Timeout beim Warten auf finalen Eingaben-OK-Prompt oder 'Bitte ausloesen'");
 
-            String s = getScreenText();
-            String c = cursor.getCursorPosition();
-
             if (isBitteAusloesen()) {
                 log.info("'Bitte ausloesen' vor finalem OK erkannt — bereinige...");
                 resolveBitteAusloesenIfPresent();
@@ -636,8 +650,8 @@ public class DeliveryDateProcessor {
 
         boolean erkannt = waitUntil("Cursor bei 23,62 und 'Pos-Nr.:' sichtbar ODER Startseite", () -> {
             terminalApp.checkForPause();
-            String cursorPosition = cursor.getCursorPosition();
-            String screenText = getScreenText();
+            var screenText = screenMatches();
+            String cursorPosition = screenText.snapshot().getCursorPosition();
 
             boolean posNrPrompt = cursorPosition.equals("23,62") && screenText.contains("Pos-Nr.:");
             boolean backToStart = cursorPosition.equals("3,11") || cursorPosition.equals("3,24");
@@ -650,8 +664,8 @@ public class DeliveryDateProcessor {
             return;
         }
 
-        String cursorPosition = cursor.getCursorPosition();
-        String screenText = getScreenText();
+        var screenText = screenMatches();
+        String cursorPosition = screenText.snapshot().getCursorPosition();
 
         if (cursorPosition.equals("23,62") && screenText.contains("Pos-Nr.:")) {
             log.info("Zusätzliche 'Pos-Nr.:' erkannt bei 23,62 – sende einmal Enter.");
@@ -662,13 +676,12 @@ public class DeliveryDateProcessor {
     }
 
     private String getScreenText() {
-        try {
-            java.lang.reflect.Method method = screenTextDetector.getClass().getMethod("getScreenText");
-            return (String) method.invoke(screenTextDetector);
-        } catch (Exception e) {
-            log.warn("Fehler beim Aufruf von getScreenText(), fallback auf toString(). Grund: {}", e.getMessage());
-            return screenTextDetector.toString();
-        }
+        return screenTextDetector.getScreenText();
+    }
+
+    /** Prompt matches on the latest screen; literals are compiled into the shared index on first use. */
+    private ScreenPatternIndex.Matches screenMatches() {
+        return screenTextDetector.matches();
     }
 
     private boolean waitForPositionPromptFast() throws InterruptedException, IOException {
@@ -682,8 +695,9 @@ public class DeliveryDateProcessor {
         while (System.nanoTime() < deadline) {
             terminalApp.checkForPause();
 
-            String cur = cursor.getCursorPosition();
-            String txt = getScreenText();
+            var snap = screenTextDetector.snapshot();
+            String cur = snap.getCursorPosition();
+            String txt = snap.getText();
 
             if (isPosPrompt(txt, cur)) {
                 long ms = (System.nanoTime() - tStart) / 1_000_000;
@@ -708,7 +722,8 @@ public class DeliveryDateProcessor {
         sshConnector.send("\r");
         return waitUntil("Pos-Prompt (Mini-Fallback)", () -> {
             terminalApp.checkForPause();
-            return isPosPrompt(getScreenText(), cursor.getCursorPosition());
+            var snap = screenTextDetector.snapshot();
+            return isPosPrompt(snap.getText(), snap.getCursorPosition());
         });
     }
 
@@ -721,6 +736,10 @@ public class DeliveryDateProcessor {
                 || norm.contains("Pos");
     }
 
+    private boolean isStartPage(ScreenSnapshot snap) {
+        return isStartPage(snap.getText(), snap.getCursorPosition());
+    }
+
     private boolean isStartPage(String text, String cursorPos) {
         if (!(cursorPos.equals("3,11") || cursorPos.equals("3,24"))) return false;
         String norm = text.replace('\u00A0',' ').replaceAll("\\s+", " ");
@@ -734,8 +753,9 @@ public class DeliveryDateProcessor {
 
         while (true) {
             terminalApp.checkForPause();
-            String cursorBefore = cursor.getCursorPosition();
-            String screenBefore = getScreenText();
+            var before = screenTextDetector.snapshot();
+            String cursorBefore = before.getCursorPosition();
+            String screenBefore = before.getText();
 
             if (isStartPage(screenBefore, cursorBefore)) {
                 lastStartReachedAtNs = System.nanoTime();
@@ -751,7 +771,7 @@ public class DeliveryDateProcessor {
 
             if (cursorBefore.equals("3,24") && screenBefore.contains("Programm - Nr.:")) {
                 log.info("Navigation: Bildschirm zeigt 'Programm - Nr.:'. Sende '5.0321'.");
-                String snapProg = captureRelevantScreenPart();
+                String snapProg = captureRelevantScreenPart(before);
                 lastBackToStartCmdAtNs = System.nanoTime();
                 lastBackToStartCmdLabel = "5.0321";
                 sendDataWithDelay("5.0321\r");
@@ -759,9 +779,10 @@ public class DeliveryDateProcessor {
 
                 boolean moved = waitUntil("Bildschirm/Cursor ändern sich nach '5.0321'", () -> {
                     terminalApp.checkForPause();
-                    String afterText = getScreenText();
-                    String afterCur  = cursor.getCursorPosition();
-                    String afterSnap = captureRelevantScreenPart();
+                    var after = screenTextDetector.snapshot();
+                    String afterText = after.getText();
+                    String afterCur  = after.getCursorPosition();
+                    String afterSnap = captureRelevantScreenPart(after);
                     return !afterSnap.equals(snapProg)
                             || !afterCur.equals(cursorBefore)
                             || isStartPage(afterText, afterCur);
@@ -770,7 +791,7 @@ public class DeliveryDateProcessor {
                 log.debug("Keine Änderung nach '5.0321'. Warte auf manuelle Änderung...");
             }
 
-            String snapshotBefore = captureRelevantScreenPart();
+            String snapshotBefore = captureRelevantScreenPart(before);
             log.info("BACK_NAV_BEFORE — Cursor={}", cursorBefore);
             lastBackToStartCmdAtNs = System.nanoTime();
             lastBackToStartCmdLabel = "ESC O Q";
@@ -780,16 +801,17 @@ public class DeliveryDateProcessor {
 
             boolean changed = waitUntil("Bildschirm/Cursor ändern sich nach OQ", () -> {
                 terminalApp.checkForPause();
-                String afterText = getScreenText();
-                String afterCur  = cursor.getCursorPosition();
-                String afterSnap = captureRelevantScreenPart();
+                var after = screenTextDetector.snapshot();
+                String afterText = after.getText();
+                String afterCur  = after.getCursorPosition();
+                String afterSnap = captureRelevantScreenPart(after);
                 return !afterSnap.equals(snapshotBefore)
                         || !afterCur.equals(cursorBefore)
                         || isStartPage(afterText, afterCur);
             });
 
             if (!changed) {
-                if (isStartPage(getScreenText(), cursor.getCursorPosition())) {
+                if (isStartPage(screenTextDetector.snapshot())) {
                     log.info("BACK_NAV_AFTER — bereits Startseite. Kein weiterer Rücksprung nötig.");
                     lastStartReachedAtNs = System.nanoTime();
                     if (lastBackToStartCmdAtNs > 0) {
@@ -803,7 +825,7 @@ public class DeliveryDateProcessor {
                 }
                 log.warn("Keine Änderung nach OQ. Warte auf manuelles Eingreifen...");
                 boolean weiter = waitUntil("Startseite erscheint nach manuellem Eingreifen",
-                        () -> isStartPage(getScreenText(), cursor.getCursorPosition()));
+                        () -> isStartPage(screenTextDetector.snapshot()));
                 if (weiter) {
                     log.info("Startseite manuell erreicht.");
                     lastStartReachedAtNs = System.nanoTime();
@@ -817,21 +839,14 @@ public class DeliveryDateProcessor {
                     break;
                 }
             } else {
-                log.info("BACK_NAV_AFTER — Cursor={}", cursor.getCursorPosition());
+                log.info("BACK_NAV_AFTER — Cursor={}", screenTextDetector.snapshot().getCursorPosition());
             }
         }
         return movedAtLeastOnce;
     }
 
-    private String captureRelevantScreenPart() {
-        StringBuilder snapshot = new StringBuilder();
-        for (int col = 35; col <= 68; col++) {
-            snapshot.append(terminalApp.getScreenBuffer().getCell(8, col).character());
-        }
-        for (int col = 39; col <= 59; col++) {
-            snapshot.append(terminalApp.getScreenBuffer().getCell(22, col).character());
-        }
-        return snapshot.toString();
+    private String captureRelevantScreenPart(ScreenSnapshot snap) {
+        return snap.getText(8, 35, 68) + snap.getText(22, 39, 59);
     }
 
     private String extractWeekFromDeliveryDate(String deliveryDate) {
@@ -909,8 +924,9 @@ public class DeliveryDateProcessor {
         boolean erkannt = waitUntil("Interner Text|Bitte ausloesen|Eingaben OK", () -> {
             terminalApp.checkForPause();
 
-            String c = cursor.getCursorPosition();
-            String s = norm(getScreenText());
+            var m = screenMatches();
+            String c = m.snapshot().getCursorPosition();
+            String s = norm(m.snapshot().getText());
 
             if (isCursorAt22x(c) && s.contains("Interner Text")) {
                 if (++stableInterner[0] >= 2) {
@@ -922,7 +938,7 @@ public class DeliveryDateProcessor {
                 stableInterner[0] = 0;
             }
 
-            if (isBitteAusloesen()) {
+            if (isBitteAusloesen(m)) {
                 status.set(AusloeserStatus.BITTE_AUSLOESEN);
                 return true;
             }
@@ -940,18 +956,8 @@ public class DeliveryDateProcessor {
     }
 
 
-    private String captureStartAnchors() {
-        StringBuilder sb = new StringBuilder(256);
-        for (int col = 8; col <= 30; col++) {
-            sb.append(terminalApp.getScreenBuffer().getCell(3, col).character());
-        }
-        for (int col = 5; col <= 40; col++) {
-            sb.append(terminalApp.getScreenBuffer().getCell(1, col).character());
-        }
-        for (int col = 31; col <= 40; col++) {
-            sb.append(terminalApp.getScreenBuffer().getCell(3, col).character());
-        }
-        return sb.toString();
+    private String captureStartAnchors(ScreenSnapshot snap) {
+        return snap.getText(3, 8, 30) + snap.getText(1, 5, 40) + snap.getText(3, 31, 40);
     }
 
     private String norm(String s) {
@@ -964,13 +970,15 @@ public class DeliveryDateProcessor {
     }
 
     private void sendEnterAndWaitForChange() throws InterruptedException, IOException {
-        String beforeSnap = captureProgressSnapshot();
-        String beforeCur  = cursor.getCursorPosition();
+        var before = screenTextDetector.snapshot();
+        String beforeSnap = captureProgressSnapshot(before);
+        String beforeCur  = before.getCursorPosition();
         sshConnector.send("\r");
         boolean changed = waitUntil("Bildschirm/Cursor geändert nach Enter", () -> {
             terminalApp.checkForPause();
-            String afterSnap = captureProgressSnapshot();
-            String afterCur  = cursor.getCursorPosition();
+            var after = screenTextDetector.snapshot();
+            String afterSnap = captureProgressSnapshot(after);
+            String afterCur  = after.getCursorPosition();
             return !afterSnap.equals(beforeSnap) || !afterCur.equals(beforeCur);
         });
         if (!changed) {
@@ -2,7 +2,7 @@ package org.msv.vt100.OrderAutomation;
 
 import org.msv.vt100.TerminalApp;
 import org.msv.vt100.core.Cursor;
-import org.msv.vt100.core.ScreenBuffer;
+import org.msv.vt100.core.ScreenPatternIndex;
 import org.msv.vt100.login.LoginProfile;
 import org.msv.vt100.login.LoginProfileManager;
 import org.msv.vt100.ssh.SSHManager;
@@ -17,14 +17,20 @@ public class LoginAutomationProcessor {
     private static final Logger logger = LoggerFactory.getLogger(LoginAutomationProcessor.class);
     private final TerminalApp terminalApp;
     private final SSHManager sshManager;
-    private final ScreenBuffer screenBuffer;
+    private final ScreenPatternIndex prompts;
+    private final int kurzzeichenPrompt;
+    private final int schutzcodePrompt;
+    private final int eingabeTastePrompt;
     private final Cursor cursor;
     private static volatile boolean autoLoginPerformed = false;
 
     public LoginAutomationProcessor(TerminalApp terminalApp) {
         this.terminalApp = terminalApp;
         this.sshManager = terminalApp.getSSHManager();
-        this.screenBuffer = terminalApp.getScreenBuffer();
+        this.prompts = new ScreenPatternIndex(terminalApp.getScreenBuffer());
+        this.kurzzeichenPrompt = prompts.register("Ihr Kurzzeichen:");
+        this.schutzcodePrompt = prompts.register("Ihr  Schutzcode:");
+        this.eingabeTastePrompt = prompts.register("Bitte Eingabe-Taste druecken");
         this.cursor = terminalApp.getCursor();
     }
 
@@ -49,7 +55,7 @@ public class LoginAutomationProcessor {
 
         logger.info("Warte auf Eingabeaufforderung 'Ihr Kurzzeichen:' im Bildschirmpuffer...");
         boolean kurzzeichenOk = waitUntil("'Ihr Kurzzeichen:' im Bildschirmtext", () ->
-                screenBuffer.toString().contains("Ihr Kurzzeichen:")
+                prompts.isVisible(kurzzeichenPrompt)
         );
         if (!kurzzeichenOk || terminalApp.isStopped()) {
             logger.info("Terminal gestoppt oder Timeout. Abbruch.");
@@ -73,7 +79,7 @@ public class LoginAutomationProcessor {
 
         logger.info("Warte auf Eingabeaufforderung 'Ihr  Schutzcode:' im Bildschirmpuffer...");
         boolean schutzcodeOk = waitUntil("'Ihr  Schutzcode:' im Bildschirmtext", () ->
-                screenBuffer.toString().contains("Ihr  Schutzcode:")
+                prompts.isVisible(schutzcodePrompt)
         );
         if (!schutzcodeOk || terminalApp.isStopped()) return;
 
@@ -90,10 +96,11 @@ public class LoginAutomationProcessor {
         }
 
         logger.info("Warte auf Post-Login-Aufforderung 'Bitte Eingabe-Taste druecken' und Cursor bei 23,55...");
-        boolean postLoginPrompt = waitUntil("Bitte Eingabe-Taste druecken + Cursor 23,55", () ->
-                screenBuffer.toString().contains("Bitte Eingabe-Taste druecken")
-                        && cursor.getCursorPosition().equals("23,55")
-        );
+        boolean postLoginPrompt = waitUntil("Bitte Eingabe-Taste druecken + Cursor 23,55", () -> {
+            ScreenPatternIndex.Matches m = prompts.current();
+            return m.isVisible(eingabeTastePrompt)
+                    && m.snapshot().getCursorPosition().equals("23,55");
+        });
         if (postLoginPrompt && !terminalApp.isStopped()) {
             logger.info("Aufforderung erkannt. Sende Enter.");
             sshManager.send("\r");
@@ -15,7 +15,8 @@ import org.msv.vt100.core.Cursor;
 import org.msv.vt100.core.ScreenBuffer;
 import org.msv.vt100.ssh.SSHManager;
 import org.msv.vt100.ui.TerminalDialog;
-import org.msv.vt100.util.CellValueExtractor;
+import org.msv.vt100.util.ScreenField;
+import org.msv.vt100.util.ScreenTable;
 
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -25,11 +26,25 @@ import java.util.concurrent.CountDownLatch;
 
 public class PositionssucheProcessor {
 
+    // Position list: one position per line 7..22; the model number is printed one line below.
+    private static final int FIRST_TABLE_LINE = 7;
+    private static final int LAST_TABLE_LINE = 22;
+    private static final ScreenField POSITION = ScreenField.column("Position", 1, 4, ScreenField.Trim.NONE);
+    private static final ScreenField FIRM = ScreenField.column("Firma", 5, 8, ScreenField.Trim.NONE);
+    private static final ScreenField MODEL_DESCRIPTION = ScreenField.column("Modellbezeichnung", 23, 42, ScreenField.Trim.NONE);
+    private static final ScreenField MODEL_NUMBER = ScreenField.column("Modellnummer", 1, 23, 42, ScreenField.Trim.NONE);
+    private static final ScreenField AB_LIEFERTERMIN = ScreenField.column("AB-Liefertermin", 56, 59, ScreenField.Trim.NONE);
+    private static final ScreenField DELIVERY_DATE = ScreenField.column("Liefertermin", 64, 67, ScreenField.Trim.NONE);
+    private static final ScreenTable POSITION_TABLE = new ScreenTable(FIRST_TABLE_LINE, LAST_TABLE_LINE,
+            POSITION, FIRM, MODEL_DESCRIPTION, MODEL_NUMBER, AB_LIEFERTERMIN, DELIVERY_DATE);
+    private static final ScreenField MODEL_NUMBER_NEXT_PAGE = ScreenField.at("Modellnummer", FIRST_TABLE_LINE, 23, 42, ScreenField.Trim.NONE);
+
     private final String orderFilePath;
     private final String outputFilePath;
     private final String userNumber;
     private final TerminalApp terminalApp;
     private final ScreenBuffer screenBuffer;
+    private final ScreenTextDetector screenTextDetector;
     private final Cursor cursor;
     private final SSHManager sshManager;
 
@@ -40,6 +55,7 @@ public class PositionssucheProcessor {
         this.userNumber = userNumber;
         this.terminalApp = terminalApp;
         this.screenBuffer = screenBuffer;
+        this.screenTextDetector = new ScreenTextDetector(screenBuffer);
         this.cursor = cursor;
         this.sshManager = terminalApp.getSSHManager();
     }
@@ -138,8 +154,7 @@ public class PositionssucheProcessor {
             if (terminalApp.isStopped()) break;
             sendDataWithDelay(order);
             Thread.sleep(70);
-            ScreenTextDetector detector = new ScreenTextDetector(screenBuffer);
-            while (detector.isAchtungDisplayed()) {
+            while (screenTextDetector.isAchtungDisplayed()) {
                 waitForStableScreenSnapshot(Duration.ofSeconds(1), Duration.ofMillis(50));
             }
             boolean finished = false;
@@ -183,39 +198,34 @@ public class PositionssucheProcessor {
 
             boolean pageTransitioned = false;
 
-            for (int line = 7; line <= 22; line++) {
+            for (ScreenTable.Line line : POSITION_TABLE.extract(buffer.snapshot())) {
                 terminalApp.checkForPause();
                 if (terminalApp.isStopped()) return resultRowIndex;
 
-                String cellFirm = CellValueExtractor.extractCells(buffer, line,  5, 6, 7, 8);
+                String cellFirm = line.get(FIRM);
                 for (String firm : firmNumbers) {
                     if (cellFirm.equals(firm)) {
-                        String position = CellValueExtractor.extractCells(buffer, line, 1, 2, 3,4);
+                        String position = line.get(POSITION);
                         String key = firm + "_" + position;
                         Row existingRow = processedRows.get(key);
                         if (existingRow == null) {
                             Row newRow = resultSheet.createRow(resultRowIndex++);
                             processedRows.put(key, newRow);
+                            writeRow(newRow, line, defaultCellStyle, firm, order, position);
 
-                            if (line == 22) {
-                                writeRow22(newRow, buffer, defaultCellStyle, firm, order, position);
+                            if (line.line() == LAST_TABLE_LINE) {
+                                // The model number is printed below the last line; it shows up on the next page.
                                 sendDataWithDelay("\r");
                                 Thread.sleep(70);
-                                String modelNumber = CellValueExtractor.extractCells(screenBuffer, 7,  23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41,42);
+                                String modelNumber = MODEL_NUMBER_NEXT_PAGE.read(screenBuffer.snapshot());
                                 Cell cellModel = newRow.createCell(4);
                                 cellModel.setCellValue(modelNumber);
                                 cellModel.setCellStyle(defaultCellStyle);
                                 pageTransitioned = true;
                                 break;
-                            } else {
-                                writeNormalRow(newRow, buffer, line, defaultCellStyle, firm, order, position);
                             }
                         } else {
-                            if (line == 22) {
-                                updateRow22(existingRow, buffer, defaultCellStyle);
-                            } else {
-                                updateNormalRow(existingRow, buffer, line, defaultCellStyle);
-                            }
+                            updateRow(existingRow, line, defaultCellStyle);
                         }
 
                     }
@@ -239,111 +249,34 @@ public class PositionssucheProcessor {
     }
 
 
-    private void writeRow22(Row row, ScreenBuffer buffer, CellStyle defaultCellStyle, String firm, String order, String position) {
-        Cell cellFirm = row.createCell(0);
-        cellFirm.setCellValue(firm);
-        cellFirm.setCellStyle(defaultCellStyle);
-        Cell cellOrder = row.createCell(1);
-        cellOrder.setCellValue(order);
-        cellOrder.setCellStyle(defaultCellStyle);
-        Cell cellPosition = row.createCell(2);
-        cellPosition.setCellValue(position);
-        cellPosition.setCellStyle(defaultCellStyle);
-        String modelDescription = CellValueExtractor.extractCells(buffer, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41,42);
-        String deliveryDate = CellValueExtractor.extractCells(buffer, 22, 64, 65, 66,67);
-        String abLiefertermin = CellValueExtractor.extractCells(buffer, 22, 56, 57, 58,59);
-        Cell cellDesc = row.createCell(3);
-        cellDesc.setCellValue(modelDescription);
-        cellDesc.setCellStyle(defaultCellStyle);
-        Cell cellDelivery = row.createCell(5);
-        cellDelivery.setCellValue(deliveryDate);
-        cellDelivery.setCellStyle(defaultCellStyle);
-        Cell cellAB = row.createCell(6);
-        cellAB.setCellValue(abLiefertermin);
-        cellAB.setCellStyle(defaultCellStyle);
+    private void writeRow(Row row, ScreenTable.Line line, CellStyle defaultCellStyle, String firm, String order, String position) {
+        setCell(row, 0, firm, defaultCellStyle);
+        setCell(row, 1, order, defaultCellStyle);
+        setCell(row, 2, position, defaultCellStyle);
+        writeLineValues(row, line, defaultCellStyle);
     }
 
-    private void writeNormalRow(Row row, ScreenBuffer buffer, int line, CellStyle defaultCellStyle, String firm, String order, String position) {
-        Cell cellFirm = row.createCell(0);
-        cellFirm.setCellValue(firm);
-        cellFirm.setCellStyle(defaultCellStyle);
-        Cell cellOrder = row.createCell(1);
-        cellOrder.setCellValue(order);
-        cellOrder.setCellStyle(defaultCellStyle);
-        Cell cellPosition = row.createCell(2);
-        cellPosition.setCellValue(position);
-        cellPosition.setCellStyle(defaultCellStyle);
-        String modelDescription = CellValueExtractor.extractCells(buffer, line, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42);
-        String modelNumber = CellValueExtractor.extractCells(buffer, line + 1, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42);
-        String deliveryDate = CellValueExtractor.extractCells(buffer, line, 64, 65, 66, 67);
-        String abLiefertermin = CellValueExtractor.extractCells(buffer, line, 56, 57, 58,59);
-        Cell cellDesc = row.createCell(3);
-        cellDesc.setCellValue(modelDescription);
-        cellDesc.setCellStyle(defaultCellStyle);
-        Cell cellModel = row.createCell(4);
-        cellModel.setCellValue(modelNumber);
-        cellModel.setCellStyle(defaultCellStyle);
-        Cell cellDelivery = row.createCell(5);
-        cellDelivery.setCellValue(deliveryDate);
-        cellDelivery.setCellStyle(defaultCellStyle);
-        Cell cellAB = row.createCell(6);
-        cellAB.setCellValue(abLiefertermin);
-        cellAB.setCellStyle(defaultCellStyle);
+    private void updateRow(Row row, ScreenTable.Line line, CellStyle defaultCellStyle) {
+        writeLineValues(row, line, defaultCellStyle);
     }
 
-    private void updateRow22(Row row, ScreenBuffer buffer, CellStyle defaultCellStyle) {
-        String modelDescription = CellValueExtractor.extractCells(buffer, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42);
-        String deliveryDate = CellValueExtractor.extractCells(buffer, 22, 64, 65, 66, 67);
-        String abLiefertermin = CellValueExtractor.extractCells(buffer, 22, 56, 57, 58, 59);
-        Cell cellDesc = row.getCell(3);
-        if (cellDesc == null) {
-            cellDesc = row.createCell(3);
-        }
-        cellDesc.setCellValue(modelDescription);
-        cellDesc.setCellStyle(defaultCellStyle);
-        Cell cellDelivery = row.getCell(5);
-        if (cellDelivery == null) {
-            cellDelivery = row.createCell(5);
-        }
-        cellDelivery.setCellValue(deliveryDate);
-        cellDelivery.setCellStyle(defaultCellStyle);
-        Cell cellAB = row.getCell(6);
-        if (cellAB == null) {
-            cellAB = row.createCell(6);
+    /** Description, delivery dates and (except on the last line) the model number below the line. */
+    private void writeLineValues(Row row, ScreenTable.Line line, CellStyle defaultCellStyle) {
+        setCell(row, 3, line.get(MODEL_DESCRIPTION), defaultCellStyle);
+        if (line.line() != LAST_TABLE_LINE) {
+            setCell(row, 4, line.get(MODEL_NUMBER), defaultCellStyle);
         }
-        cellAB.setCellValue(abLiefertermin);
-        cellAB.setCellStyle(defaultCellStyle);
+        setCell(row, 5, line.get(DELIVERY_DATE), defaultCellStyle);
+        setCell(row, 6, line.get(AB_LIEFERTERMIN), defaultCellStyle);
     }
 
-    private void updateNormalRow(Row row, ScreenBuffer buffer, int line, CellStyle defaultCellStyle) {
-        String modelDescription = CellValueExtractor.extractCells(buffer, line,  23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42);
-        String modelNumber = CellValueExtractor.extractCells(buffer, line + 1, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42);
-        String deliveryDate = CellValueExtractor.extractCells(buffer, line, 64, 65, 66, 67);
-        String abLiefertermin = CellValueExtractor.extractCells(buffer, line, 56, 57, 58, 59);
-        Cell cellDesc = row.getCell(3);
-        if (cellDesc == null) {
-            cellDesc = row.createCell(3);
-        }
-        cellDesc.setCellValue(modelDescription);
-        cellDesc.setCellStyle(defaultCellStyle);
-        Cell cellModel = row.getCell(4);
-        if (cellModel == null) {
-            cellModel = row.createCell(4);
-        }
-        cellModel.setCellValue(modelNumber);
-        cellModel.setCellStyle(defaultCellStyle);
-        Cell cellDelivery = row.getCell(5);
-        if (cellDelivery == null) {
-            cellDelivery = row.createCell(5);
-        }
-        cellDelivery.setCellValue(deliveryDate);
-        cellDelivery.setCellStyle(defaultCellStyle);
-        Cell cellAB = row.getCell(6);
-        if (cellAB == null) {
-            cellAB = row.createCell(6);
+    private static void setCell(Row row, int column, String value, CellStyle style) {
+        Cell cell = row.getCell(column);
+        if (cell == null) {
+            cell = row.createCell(column);
         }
-        cellAB.setCellValue(abLiefertermin);
-        cellAB.setCellStyle(defaultCellStyle);
+        cell.setCellValue(value);
+        cell.setCellStyle(style);
     }
 
 
@@ -353,14 +286,14 @@ public class PositionssucheProcessor {
     }
     private void waitForStableScreenSnapshot(Duration timeout, Duration interval) throws InterruptedException {
         long startTime = System.currentTimeMillis();
-        String last = screenBuffer.toStringVisible();
+        long last = screenBuffer.getCommitSequence();
 
         while (System.currentTimeMillis() - startTime < timeout.toMillis()) {
             Thread.sleep(interval.toMillis());
             terminalApp.checkForPause();
 
-            String current = screenBuffer.toStringVisible();
-            if (current.equals(last)) {
+            long current = screenBuffer.getCommitSequence();
+            if (current == last) {
                 return;
             }
             last = current;
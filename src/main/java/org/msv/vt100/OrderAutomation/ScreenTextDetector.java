@@ -1,27 +1,54 @@
 package org.msv.vt100.OrderAutomation;
 
 import org.msv.vt100.core.ScreenBuffer;
+import org.msv.vt100.core.ScreenPatternIndex;
+import org.msv.vt100.core.ScreenSnapshot;
 
 public class ScreenTextDetector {
 
     private final ScreenBuffer screenBuffer;
+    private final ScreenPatternIndex patterns;
+
+    private final int wareneingang;
+    private final int aenderungsauftrag;
 
     public ScreenTextDetector(ScreenBuffer screenBuffer) {
         this.screenBuffer = screenBuffer;
+        this.patterns = new ScreenPatternIndex(screenBuffer);
+        this.wareneingang = patterns.register("Wareneingang");
+        this.aenderungsauftrag = patterns.register("Aenderungsauftrag vorhanden");
+    }
+
+    /** Latest committed screen; safe to read from automation threads. */
+    public ScreenSnapshot snapshot() {
+        return screenBuffer.snapshot();
+    }
+
+    /** Prompt index shared by the automation processors. */
+    public ScreenPatternIndex patterns() {
+        return patterns;
+    }
+
+    /** Registered-literal matches on the latest screen; use one result for checks that belong together. */
+    public ScreenPatternIndex.Matches matches() {
+        return patterns.current();
     }
 
     public boolean isWareneingangDisplayed() {
-        String screenText = screenBuffer.toStringVisible();
-        return screenText.contains("Wareneingang");
+        return patterns.isVisible(wareneingang);
+    }
+
+    /** Same check on an already taken match result, for checks that also read its cursor. */
+    public boolean isWareneingangDisplayed(ScreenPatternIndex.Matches m) {
+        return m.isVisible(wareneingang);
     }
 
     public boolean isAchtungDisplayed() {
-        String screenText = screenBuffer.toStringVisible();
-        return screenText.contains("Aenderungsauftrag vorhanden");
+        return patterns.isVisible(aenderungsauftrag);
     }
 
     public String getScreenText() {
-        return screenBuffer.toStringVisible();
+        return screenBuffer.snapshot().getText();
     }
 
-}
\ No newline at end of file
+}
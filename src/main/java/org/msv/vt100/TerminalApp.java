@@ -6,12 +6,9 @@ import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.FileAppender;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 import org.msv.vt100.OrderAutomation.LoginAutomationProcessor;
 import org.msv.vt100.OrderAutomation.ScreenTextDetector;
 import org.msv.vt100.ansiisequences.*;
@@ -32,6 +29,7 @@ public class TerminalApp extends Application {
 
     private static final Logger logger = LoggerFactory.getLogger(TerminalApp.class);
 
+    // Initial geometry; the host can switch to 132 columns (DECCOLM), see resizeTerminal()
     private static final int COLUMNS = 80;
     private static final int ROWS = 25;
 
@@ -42,12 +40,14 @@ public class TerminalApp extends Application {
     private TextFormater textFormater;
     private ScreenTextDetector screenTextDetector;
     private InputProcessor inputProcessor;
+    private TerminalEmulator emulator;
+    private TerminalResizeHandler terminalResizeHandler;
     //private final OrderPrivacyMasker orderPrivacyMasker = new OrderPrivacyMasker();
 
     private UIController uiController;
 
     private SSHConfig currentProfile;
-    private SSHManager sshManager;
+    private volatile SSHManager sshManager;
 
     private final AtomicBoolean isPaused = new AtomicBoolean(false);
     private final AtomicBoolean isStopped = new AtomicBoolean(false);
@@ -62,15 +62,15 @@ public class TerminalApp extends Application {
     private boolean isLoggingEnabled = false;
     private boolean isDeliveryLoggingEnabled = false;
 
-    private volatile boolean repaintRequested = true;
-    private boolean lastCursorVisible = false;
-    private Timeline screenUpdateTimeline;
+    private ScreenSnapshot lastFrame;
+    private FrameScheduler frameScheduler;
 
 
     @Override
     public void start(Stage primaryStage) {
         try {
             initializeComponents();
+            emulator.start();
             initializeUI(primaryStage);
             initializeSSHManager();
             initializeFileProcessingService();
@@ -141,13 +141,17 @@ public class TerminalApp extends Application {
         CursorMovementHandler cursorMovementHandler = new CursorMovementHandler(cursorController);
         CopyRectangularAreaHandler copyRectangularAreaHandler = new CopyRectangularAreaHandler(screenBuffer);
         EraseCharacterHandler eraseCharacterHandler = new EraseCharacterHandler(screenBuffer, cursor, leftRightMarginModeHandler);
+        terminalResizeHandler = new TerminalResizeHandler(
+                screenBuffer, cursor, scrollingHandler, leftRightMarginSequenceHandler, erasingSequences
+        );
 
         EscapeSequenceHandler escapeSequenceHandler = new EscapeSequenceHandler(
                 erasingSequences, cursorMovementHandler, decomHandler, scrollingHandler,
                 charsetSwitchHandler, cursorVisibilityManager, textFormater, nrcsHandler,
                 cursorController, leftRightMarginModeHandler, copyRectangularAreaHandler,
                 eraseCharacterHandler, fillRectangularAreaHandler, cursor,
-                lineAttributeHandler, screenBuffer, leftRightMarginSequenceHandler, insertLineHandler
+                lineAttributeHandler, screenBuffer, leftRightMarginSequenceHandler, insertLineHandler,
+                terminalResizeHandler
         );
 
         screenTextDetector = new ScreenTextDetector(screenBuffer);
@@ -160,17 +164,35 @@ public class TerminalApp extends Application {
                 textFormater,
                 this::handleBackspace
         );
+
+        emulator = new TerminalEmulator(inputProcessor, screenBuffer, cursor);
+        screenBuffer.addChangeListener(e -> {
+            if (e.isGeometryChanged()) {
+                onGeometryChanged(e.getSnapshot().getColumns(), e.getSnapshot().getRows());
+            }
+        });
+    }
+
+    /** Resizes the terminal on the emulator thread; the host is told through the PTY. */
+    public void resizeTerminal(int rows, int columns) {
+        emulator.submit(() -> terminalResizeHandler.resize(rows, columns));
+    }
+
+    private void onGeometryChanged(int columns, int rows) {
+        SSHManager manager = sshManager;
+        if (manager != null) {
+            manager.setPtySize(columns, rows);
+        }
     }
 
     public void handleBackspace() {
         if (cursor.getColumn() > 0) {
             cursor.moveLeft();
-            screenBuffer.setCell(cursor.getRow(), cursor.getColumn(), new Cell(" ", textFormater.getCurrentStyle()));
+            screenBuffer.setCell(cursor.getRow(), cursor.getColumn(), Cell.BLANK, textFormater.getCurrentAttributes());
         } else if (cursor.getRow() > 0) {
             cursor.setPosition(cursor.getRow() - 1, screenBuffer.getColumns() - 1);
-            screenBuffer.setCell(cursor.getRow(), cursor.getColumn(), new Cell(" ", textFormater.getCurrentStyle()));
+            screenBuffer.setCell(cursor.getRow(), cursor.getColumn(), Cell.BLANK, textFormater.getCurrentAttributes());
         }
-        requestRepaint();
     }
 
     private void initializeUI(Stage primaryStage) {
@@ -207,12 +229,12 @@ public class TerminalApp extends Application {
         }
 
         currentProfile = config;
+        ScreenSnapshot geometry = screenBuffer.snapshot();
         sshManager = new SSHManager(config)
-                .withKeepAlive(15_000, 3);
+                .withKeepAlive(15_000, 3)
+                .withPtySize(geometry.getColumns(), geometry.getRows());
 
-        sshManager.addDataListener(data ->
-                Platform.runLater(() -> processInput(data.toCharArray()))
-        );
+        sshManager.addDataListener(this::onSshData);
 
         sshManager.connectAsync()
                 .thenRun(() -> Platform.runLater(() -> {
@@ -253,21 +275,42 @@ public class TerminalApp extends Application {
         }
     }
 
+    /** Queues text for the emulator as if it came from the host. */
     public void processInput(char[] inputChars) {
-        inputProcessor.processInput(inputChars);
-        requestRepaint();
+        emulator.feed(inputChars, 0, inputChars.length);
+    }
+
+    /** Called on the SSH reader thread; the emulator copies the chunk before the buffer is reused. */
+    private void onSshData(char[] buf, int off, int len) {
+        emulator.feed(buf, off, len);
+    }
+
+    /** Runs a screen mutation on the emulator thread; the result shows up with the next frame. */
+    public void runOnEmulator(Runnable task) {
+        emulator.submit(task);
+    }
+
+    /** Called after keystrokes were sent to the host; starts an input-to-pixel measurement. */
+    public void onUserInput() {
+        FrameScheduler scheduler = frameScheduler;
+        if (scheduler != null) scheduler.markInput();
     }
 
-    private void requestRepaint() {
-        repaintRequested = true;
+    /** Repaint scheduler; exposes the frame cap and input-to-pixel latency for tuning. */
+    public FrameScheduler getFrameScheduler() {
+        return frameScheduler;
     }
 
+    /**
+     * Repaints are driven by {@link FrameScheduler}: commits of the emulator and cursor blinks request a
+     * frame, so nothing runs while the screen is idle. The frame cap can be set with -Dmsv.maxFps.
+     */
     private void startScreenUpdater() {
-        screenUpdateTimeline = new Timeline(
-                new KeyFrame(Duration.millis(33), event -> updateScreenIfNeeded())
-        );
-        screenUpdateTimeline.setCycleCount(Timeline.INDEFINITE);
-        screenUpdateTimeline.play();
+        frameScheduler = new FrameScheduler(this::renderLatestFrame,
+                Integer.getInteger("msv.maxFps", FrameScheduler.DEFAULT_MAX_FPS));
+        screenBuffer.addChangeListener(e -> frameScheduler.requestFrame());
+        cursorVisibilityManager.addVisibilityChangeListener(frameScheduler::requestRepaint);
+        frameScheduler.start();
     }
 
     @Override
@@ -289,9 +332,14 @@ public class TerminalApp extends Application {
         }
 
         try {
-            if (screenUpdateTimeline != null) {
-                screenUpdateTimeline.stop();
-                screenUpdateTimeline = null;
+            if (frameScheduler != null) {
+                frameScheduler.stop();
+            }
+        } catch (Exception ignore) {}
+
+        try {
+            if (emulator != null) {
+                emulator.shutdown();
             }
         } catch (Exception ignore) {}
 
@@ -315,24 +363,22 @@ public class TerminalApp extends Application {
         }
     }
 
-    private void updateScreenIfNeeded() {
-        boolean currentCursorVisible = cursorVisibilityManager.isCursorVisible();
-        if (currentCursorVisible != lastCursorVisible) {
-            repaintRequested = true;
-            lastCursorVisible = currentCursorVisible;
-        }
-        if (!repaintRequested) {
-            return;
+    private void renderLatestFrame() {
+        ScreenSnapshot frame = emulator.pollFrame();
+        if (frame != null) {
+            lastFrame = frame;
         }
         updateScreen();
-        repaintRequested = false;
     }
 
     void updateScreen() {
         // orderPrivacyMasker.apply(screenBuffer);
-        screenBuffer.commit();
         TerminalCanvas canvas = uiController.getTerminalCanvas();
-        canvas.setCursorPosition(cursor.getRow(), cursor.getColumn());
+        if (lastFrame != null) {
+            canvas.setCursorPosition(lastFrame.getCursorRow(), lastFrame.getCursorColumn());
+        } else {
+            canvas.setCursorPosition(cursor.getRow(), cursor.getColumn());
+        }
         canvas.setCursorVisible(cursorVisibilityManager.isCursorVisible());
         canvas.updateScreen();
     }
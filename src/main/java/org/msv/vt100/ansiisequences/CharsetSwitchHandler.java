@@ -39,6 +39,8 @@ public class CharsetSwitchHandler {
 
     // Immutable mapping for DEC Special Graphics.
     private static final Map<Character, Character> SG_MAP;
+    // Same mapping as SG_MAP, indexed by ASCII code for the per-char hot path.
+    private static final char[] SG_TABLE;
     static {
         // Common DEC Special Graphics mappings (subset widely used by ncurses):
 
@@ -55,6 +57,10 @@ public class CharsetSwitchHandler {
                 Map.entry('v', '┴'), // bottom tee
                 Map.entry('w', '┬'), // top tee
                 Map.entry('x', '│'));
+        SG_TABLE = new char[0x80];
+        for (char c = 0; c < 0x80; c++) {
+            SG_TABLE[c] = SG_MAP.getOrDefault(c, c);
+        }
     }
 
     /* ===================== Public API ===================== */
@@ -97,6 +103,19 @@ public class CharsetSwitchHandler {
         return mapToDecSpecialGraphics(text);
     }
 
+    /** True if the active bank maps text to DEC Special Graphics. */
+    public boolean isGraphicsActive() {
+        return getActiveCharset() == CharsetMode.DEC_SPECIAL_GRAPHICS;
+    }
+
+    /**
+     * Maps a single char through DEC Special Graphics, regardless of the active bank.
+     * Callers check {@link #isGraphicsActive()} once per run.
+     */
+    public static char toDecSpecialGraphics(char c) {
+        return (c < 0x80) ? SG_TABLE[c] : c;
+    }
+
     /* ===================== Internals ===================== */
 
     private CharsetMode getActiveCharset() {
@@ -1,7 +1,6 @@
 package org.msv.vt100.ansiisequences;
 
 import org.msv.vt100.core.ScreenBuffer;
-import org.msv.vt100.core.Cell;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,26 +40,9 @@ public class CopyRectangularAreaHandler {
 
     private void copyAreaBetweenPages(int srcRowStart, int srcColStart, int dstRowStart, int dstColStart,
                                       int numRows, int numCols, int srcPageNumber, int dstPageNumber) {
-        int originalPage = screenBuffer.getCurrentPageNumber();
-
-        screenBuffer.switchToPage(srcPageNumber);
-
-        Cell[][] tempBuffer = new Cell[numRows][numCols];
-        for (int row = 0; row < numRows; row++) {
-            for (int col = 0; col < numCols; col++) {
-                tempBuffer[row][col] = screenBuffer.getCell(srcRowStart + row, srcColStart + col);
-            }
-        }
-
-        screenBuffer.switchToPage(dstPageNumber);
-
-        for (int row = 0; row < numRows; row++) {
-            for (int col = 0; col < numCols; col++) {
-                screenBuffer.setCell(dstRowStart + row, dstColStart + col, tempBuffer[row][col]);
-            }
-        }
-
-        screenBuffer.switchToPage(originalPage);
+        // Copies row segments directly between the pages; the active page stays as it is
+        screenBuffer.copyRect(Math.max(1, srcPageNumber), srcRowStart, srcColStart,
+                Math.max(1, dstPageNumber), dstRowStart, dstColStart, numRows, numCols);
     }
 
     private boolean isValidArea(int rowStart, int colStart, int numRows, int numCols) {
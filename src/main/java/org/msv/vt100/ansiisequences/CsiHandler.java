@@ -0,0 +1,20 @@
+package org.msv.vt100.ansiisequences;
+
+/**
+ * Receives a fully parsed CSI sequence.
+ * Notes:
+ * - {@code privateMarker} is one of {@code < = > ?} or 0; {@code intermediate} is 0x20..0x2F or 0.
+ * - Parameters are 0 when omitted; {@code params} is only valid during the call and must not be retained.
+ */
+@FunctionalInterface
+public interface CsiHandler {
+
+    void onCsi(char privateMarker, char intermediate, int[] params, int paramCount, char finalByte);
+
+    /** Returns parameter {@code index}, or {@code def} when it is missing or 0 (VT default semantics). */
+    static int param(int[] params, int paramCount, int index, int def) {
+        if (index >= paramCount) return def;
+        int v = params[index];
+        return (v == 0) ? def : v;
+    }
+}
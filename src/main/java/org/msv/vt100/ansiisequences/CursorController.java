@@ -1,11 +1,8 @@
 package org.msv.vt100.ansiisequences;
 
-import org.msv.vt100.core.Cell;
+import org.msv.vt100.core.Attributes;
 import org.msv.vt100.core.Cursor;
 import org.msv.vt100.core.ScreenBuffer;
-import org.msv.vt100.util.StyleUtils;
-
-import java.util.Map;
 
 /**
  * Controls cursor positioning and character emission into the ScreenBuffer.
@@ -13,8 +10,8 @@ import java.util.Map;
  * - Apply DECOM (relative origin) and DECVLRM (left/right margins) when setting cursor position.
  * - Handle auto-wrap (DECAWM) on character emission.
  * - Implement CR/LF semantics (without writing control glyphs).
- * - Pass text through active charset transformers (DEC Special Graphics, NRCS) before writing.
- * - Merge per-cell style (from TextFormater) with per-line style (from LineAttributeHandler).
+ * - Pass printable runs through active charset transformers (DEC Special Graphics, NRCS) before writing.
+ * - Merge per-cell attributes (from TextFormater) with per-line attributes (from LineAttributeHandler).
  * Notes:
  * - This class does not parse escape sequences; it is called by respective handlers.
  * - ScreenBuffer coordinates are 0-based, inclusive.
@@ -38,6 +35,9 @@ public class CursorController {
     private int leftMargin = 0;                  // 0-based, inclusive (effective when DECVLRM is enabled)
     private int rightMargin;                     // 0-based, inclusive
 
+    // Scratch space for translated runs (see translate()).
+    private char[] runScratch = new char[256];
+
     public CursorController(Cursor cursor,
                             ScreenBuffer screenBuffer,
                             LeftRightMarginModeHandler leftRightMarginModeHandler,
@@ -125,82 +125,104 @@ public class CursorController {
     }
 
     /**
-     * Emits a single "printable" character using the current TextFormater style.
-     * - Control characters are handled (CR/LF) and never written as glyphs.
-     * - Text is passed through charset/NRCS processors when available.
+     * Writes a run of printable text at the cursor using the current TextFormater attributes.
+     * - The run is translated once (DEC Special Graphics, then NRCS) before writing.
+     * - It is cut at the effective right margin; each segment is stored with one ScreenBuffer call.
+     * - With auto-wrap (DECAWM) the next segment continues at the start of the next line,
+     *   scrolling the region if needed; without it the rest overwrites the last column.
+     * - A surrogate pair occupies one cell.
      */
-    public void handleCharacter(String ch) {
-        if (ch == null || ch.isEmpty()) return;
-
-        // Handle control chars: CR/LF only. Others are ignored here (processed by upstream handlers).
-        if ("\r".equals(ch)) {                  // Carriage Return
-            moveCursorToLineStart();
-            return;
+    public void writeRun(char[] buf, int off, int len) {
+        if (len <= 0) return;
+
+        char[] text = buf;
+        int pos = off;
+        boolean graphics = charsetSwitchHandler != null && charsetSwitchHandler.isGraphicsActive();
+        boolean nrcs = nrcsHandler != null && nrcsHandler.isTranslating();
+        if (graphics || nrcs) {
+            text = translate(buf, off, len, graphics, nrcs);
+            pos = 0;
         }
-        if ("\n".equals(ch)) {                  // Line Feed
+        final int end = pos + len;
+
+        while (pos < end) {
+            if (isCursorOutOfBounds()) return;
+
+            int row = cursor.getRow();
+            int col = cursor.getColumn();
+            int effectiveRight = effectiveRightMargin();
+            int space = Math.max(1, effectiveRight - col + 1);
+
+            int segEnd = pos;
+            int cells = 0;
+            while (segEnd < end && cells < space) {
+                segEnd += charCountAt(text, segEnd, end);
+                cells++;
+            }
+
+            int attr = attributesForRow(row);
+            screenBuffer.writeCells(row, col, text, pos, segEnd - pos, attr);
+            pos = segEnd;
+
+            int lastCol = col + cells - 1;
+            if (lastCol < effectiveRight) {
+                cursor.setPosition(row, lastCol + 1);
+                continue;
+            }
+
+            if (!wraparoundEnabled) {
+                // Cursor stays on the last column; only the final glyph of the remainder survives there.
+                cursor.setPosition(row, lastCol);
+                if (pos < end) {
+                    int lastStart = lastGlyphStart(text, pos, end);
+                    screenBuffer.writeCells(row, lastCol, text, lastStart, end - lastStart, attr);
+                }
+                return;
+            }
+
+            // Auto-wrap behavior: move to start of next line (within scrolling region), scrolling if needed
+            moveCursorToLineStart();
             moveCursorDown();
-            return;
         }
+    }
 
-        // Guard against out-of-bounds
-        if (isCursorOutOfBounds()) return;
-
-        // Skip ISO control characters (not printable)
-        if (isControl(ch)) return;
+    // ---- internals ----
 
-        // Apply DEC Special Graphics and NRCS, if handlers are provided
-        String out = ch;
-        if (charsetSwitchHandler != null) {
-            out = charsetSwitchHandler.processText(out);
-        }
-        if (nrcsHandler != null) {
-            out = nrcsHandler.processText(out);
+    private char[] translate(char[] buf, int off, int len, boolean graphics, boolean nrcs) {
+        if (runScratch.length < len) {
+            runScratch = new char[Math.max(len, runScratch.length * 2)];
         }
-
-        // After mapping, we may have 1+ code points; render each as its own cell
-        for (int i = 0; i < out.length(); i++) {
-            String glyph = String.valueOf(out.charAt(i));
-            writeGlyphAndAdvance(glyph);
+        char[] out = runScratch;
+        for (int i = 0; i < len; i++) {
+            char c = buf[off + i];
+            if (graphics) c = CharsetSwitchHandler.toDecSpecialGraphics(c);
+            if (nrcs) c = nrcsHandler.translate(c);
+            out[i] = c;
         }
+        return out;
     }
 
-    // ---- internals ----
-
-    private void writeGlyphAndAdvance(String glyph) {
-        if (isCursorOutOfBounds()) return;
-
-        // Merge per-cell style (from current TextFormater) with per-line style.
-        // IMPORTANT: Having a non-null textFormater here is what restores reverse video and other SGR effects.
-        String cellStyle = (textFormater != null) ? textFormater.getCurrentStyle() : StyleUtils.getDefaultStyle();
-        String lineStyle = lineAttributeHandler.getLineStyle(cursor.getRow());
-        String finalStyle = combineStyles(cellStyle, lineStyle);
-
-        screenBuffer.setCell(cursor.getRow(), cursor.getColumn(), new Cell(glyph, finalStyle));
-        advanceAfterWrite();
+    private static int charCountAt(char[] text, int i, int end) {
+        return (Character.isHighSurrogate(text[i]) && i + 1 < end && Character.isLowSurrogate(text[i + 1])) ? 2 : 1;
     }
 
-    private void advanceAfterWrite() {
-        int col = cursor.getColumn();
-
-        int effectiveRight = leftRightMarginModeHandler.isLeftRightMarginModeEnabled()
-                ? rightMargin : (screenBuffer.getColumns() - 1);
-
-        if (col < effectiveRight) {
-            cursor.moveRight();
-            return;
-        }
-
-        if (!wraparoundEnabled) {
-            return;
+    private static int lastGlyphStart(char[] text, int from, int end) {
+        int i = end - 1;
+        if (i > from && Character.isLowSurrogate(text[i]) && Character.isHighSurrogate(text[i - 1])) {
+            i--;
         }
+        return i;
+    }
 
-        // Auto-wrap behavior: move to start of next line (within scrolling region), scrolling if needed
-        moveCursorToLineStart();
-        moveCursorDown();
+    private int effectiveRightMargin() {
+        return leftRightMarginModeHandler.isLeftRightMarginModeEnabled()
+                ? rightMargin : (screenBuffer.getColumns() - 1);
     }
 
-    private boolean isControl(String s) {
-        return s.codePoints().allMatch(Character::isISOControl);
+    /** Current SGR attributes combined with the line attributes of {@code row}. */
+    private int attributesForRow(int row) {
+        int cellAttr = (textFormater != null) ? textFormater.getCurrentAttributes() : Attributes.DEFAULT;
+        return cellAttr | lineAttributeHandler.getLineAttributes(row);
     }
 
     private boolean isCursorOutOfBounds() {
@@ -214,10 +236,4 @@ public class CursorController {
     private int clamp(int v, int hi) {
         return Math.max(0, Math.min(hi, v));
     }
-
-    private String combineStyles(String cellStyle, String lineStyle) {
-        Map<String, String> m = StyleUtils.parseStyleString(cellStyle);
-        m.putAll(StyleUtils.parseStyleString(lineStyle)); // line-level flags override/add
-        return StyleUtils.buildStyleString(m);
-    }
 }
@@ -4,8 +4,8 @@ import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.util.Duration;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages cursor visibility and blinking.
@@ -21,13 +21,13 @@ import java.util.List;
 public class CursorVisibilityManager {
 
     /** Logical show/hide state controlled by ESC [?25h / ?25l]. */
-    private boolean enabled = false;
+    private volatile boolean enabled = false;
 
     /** Whether blinking behavior is active. */
     private final boolean blinking = true;
 
     /** Current on/off phase when blinking is enabled. */
-    private boolean blinkPhaseOn = true;
+    private volatile boolean blinkPhaseOn = true;
 
     /** Blink timer (JavaFX Timeline). */
     private Timeline blinkTimeline;
@@ -36,7 +36,7 @@ public class CursorVisibilityManager {
     private final Duration blinkPeriod = Duration.millis(500);
 
     /** Subscribers notified on any visibility-affecting change. */
-    private final List<Runnable> visibilityChangeListeners = new ArrayList<>();
+    private final List<Runnable> visibilityChangeListeners = new CopyOnWriteArrayList<>();
 
     // ---- Public API ----
 
@@ -58,6 +58,11 @@ public class CursorVisibilityManager {
         }
     }
 
+    /** Registers {@code listener} to run whenever the effective visibility may have changed. */
+    public void addVisibilityChangeListener(Runnable listener) {
+        visibilityChangeListeners.add(listener);
+    }
+
     /** Returns true if the cursor should be painted as visible right now. */
     public boolean isCursorVisible() {
         if (!enabled) return false;
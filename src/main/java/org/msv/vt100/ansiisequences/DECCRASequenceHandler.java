@@ -18,86 +18,62 @@ public class DECCRASequenceHandler {
         this.screenBuffer = screenBuffer;
     }
 
-    public void handleDECCRA(String sequence) {
-        // Remove ESC and "$v"
-        String paramsPart = sequence.substring(1, sequence.length() - 2);
-        String[] params = paramsPart.split(";");
-
-        if (params.length < 8) {
-            logger.warn("Nicht genügend Parameter für DECCRA: {}", sequence);
+    /**
+     * Executes DECCRA (CSI Pts;Pls;Pbs;Prs;Pps;Ptd;Pld;Ppd $v) from pre-parsed parameters.
+     */
+    public void handleDECCRA(int[] params, int paramCount) {
+        if (paramCount < 8) {
+            logger.warn("Nicht genügend Parameter für DECCRA: {}", paramCount);
             return;
         }
 
-        try {
-            int maxRows = screenBuffer.getRows();
-            int maxCols = screenBuffer.getColumns();
-
-            // Parse source coordinates and destination coordinates using default conversion:
-            int Pts = parseParameter(params[0], 1, maxRows);
-            int Pls = parseParameter(params[1], 1, maxCols);
-            int Pbs = parseParameter(params[2], maxRows, maxRows);
-            int Prs = parseParameter(params[3], maxCols, maxCols);
-            int Ptd = parseParameter(params[4], 1, maxRows);
-            int Pld = parseParameter(params[5], 1, maxCols);
-            int Psrc_page = parseParameter(params[6]);
-            int Pdst_page = parseParameter(params[7]);
-
-            // Ensure that lower coordinates are not less than upper ones.
-            if (Pbs < Pts) {
-                int temp = Pts;
-                Pts = Pbs;
-                Pbs = temp;
-            }
-            if (Prs < Pls) {
-                int temp = Pls;
-                Pls = Prs;
-                Prs = temp;
-            }
-
-            // If source and destination are on the same page and the destination top is only one row below source,
-            // adjust the destination to avoid shifting the entire text.
-            if (Psrc_page == Pdst_page && Ptd == Pts + 1) {
-                logger.info("Überlappende Quelle und Ziel auf derselben Seite mit vertikalem Versatz erkannt; " +
-                        "Zieloberzeile von {} auf {} angepasst, um Verschiebung des Textes zu vermeiden.", Ptd, Pts);
-                Ptd = Pts;
-            }
-
-            // Call the copy area handler with the (possibly adjusted) parameters.
-            copyRectangularAreaHandler.copyArea(Pts, Pls, Pbs, Prs, Ptd, Pld, Psrc_page, Pdst_page);
-
-            if (shouldSwitchToDestinationPage(Pdst_page)) {
-                // Switch to destination page.
-                screenBuffer.switchToPage(Pdst_page);
-            } else {
-                // Stay on the source page.
-                screenBuffer.switchToPage(Psrc_page);
-            }
+        int maxRows = screenBuffer.getRows();
+        int maxCols = screenBuffer.getColumns();
+
+        // Parse source coordinates and destination coordinates using default conversion:
+        int Pts = clamp(CsiHandler.param(params, paramCount, 0, 1), maxRows);
+        int Pls = clamp(CsiHandler.param(params, paramCount, 1, 1), maxCols);
+        int Pbs = clamp(CsiHandler.param(params, paramCount, 2, maxRows), maxRows);
+        int Prs = clamp(CsiHandler.param(params, paramCount, 3, maxCols), maxCols);
+        int Ptd = clamp(CsiHandler.param(params, paramCount, 4, 1), maxRows);
+        int Pld = clamp(CsiHandler.param(params, paramCount, 5, 1), maxCols);
+        int Psrc_page = CsiHandler.param(params, paramCount, 6, 1);
+        int Pdst_page = CsiHandler.param(params, paramCount, 7, 1);
+
+        // Ensure that lower coordinates are not less than upper ones.
+        if (Pbs < Pts) {
+            int temp = Pts;
+            Pts = Pbs;
+            Pbs = temp;
+        }
+        if (Prs < Pls) {
+            int temp = Pls;
+            Pls = Prs;
+            Prs = temp;
+        }
 
-        } catch (NumberFormatException e) {
-            logger.error("Fehler beim Parsen der DECCRA-Parameter: {}", sequence, e);
+        // If source and destination are on the same page and the destination top is only one row below source,
+        // adjust the destination to avoid shifting the entire text.
+        if (Psrc_page == Pdst_page && Ptd == Pts + 1) {
+            logger.debug("Überlappende Quelle und Ziel auf derselben Seite mit vertikalem Versatz erkannt; " +
+                    "Zieloberzeile von {} auf {} angepasst, um Verschiebung des Textes zu vermeiden.", Ptd, Pts);
+            Ptd = Pts;
         }
-    }
 
-    // Helper method with bounds checking.
-    private int parseParameter(String param, int defaultValue, int maxValue) {
-        int value;
-        if (param == null || param.isEmpty()) {
-            value = defaultValue;
+        // Call the copy area handler with the (possibly adjusted) parameters.
+        copyRectangularAreaHandler.copyArea(Pts, Pls, Pbs, Prs, Ptd, Pld, Psrc_page, Pdst_page);
+
+        if (shouldSwitchToDestinationPage(Pdst_page)) {
+            // Switch to destination page.
+            screenBuffer.switchToPage(Pdst_page);
         } else {
-            value = Integer.parseInt(param);
-            value = (value == 0) ? defaultValue : value;
+            // Stay on the source page.
+            screenBuffer.switchToPage(Psrc_page);
         }
-        value = Math.max(1, Math.min(value, maxValue));
-        return value;
     }
 
-    // Overloaded helper.
-    private int parseParameter(String param) {
-        if (param == null || param.isEmpty()) {
-            return 1;
-        }
-        int value = Integer.parseInt(param);
-        return (value == 0) ? 1 : value;
+    private static int clamp(int value, int maxValue) {
+        return Math.max(1, Math.min(value, maxValue));
     }
 
     private boolean shouldSwitchToDestinationPage(int Pdst_page) {
@@ -2,14 +2,10 @@ package org.msv.vt100.ansiisequences;
 
 import org.msv.vt100.core.ScreenBuffer;
 import org.msv.vt100.core.Cursor;
-import org.msv.vt100.core.Cell;
-import org.msv.vt100.util.StyleUtils;
+import org.msv.vt100.core.Attributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Handles ECH (Erase Character): CSI Pn X
  * Semantics:
@@ -31,9 +27,6 @@ public class EraseCharacterHandler {
     // NEW
     private TextFormater textFormater;
 
-    // CSI Pn X (Pn optional)
-    private static final Pattern CSI_ECH = Pattern.compile("^\\u001B?\\[(\\d*)X$");
-
     public EraseCharacterHandler(ScreenBuffer screenBuffer,
                                  Cursor cursor,
                                  LeftRightMarginModeHandler leftRightMarginModeHandler) {
@@ -46,10 +39,9 @@ public class EraseCharacterHandler {
         this.textFormater = textFormater;
     }
 
-    /** Parses and executes ECH (Erase Character). */
-    public void handleEraseCharacterSequence(String sequence) {
-        int n = parseCount(sequence);
-        if (n <= 0) return;
+    /** Executes ECH (Erase Character); non-positive counts are treated as 1. */
+    public void handleEraseCharacter(int n) {
+        if (n <= 0) n = 1;
 
         int row = cursor.getRow();
         int col = cursor.getColumn();
@@ -68,10 +60,8 @@ public class EraseCharacterHandler {
         // Compute inclusive end column, clamped to right boundary
         int end = Math.min(right, col + n - 1);
 
-        String style = (textFormater != null) ? textFormater.getEraseFillStyle() : StyleUtils.getDefaultStyle();
-        for (int c = col; c <= end; c++) {
-            screenBuffer.setCell(row, c, new Cell(" ", style));
-        }
+        int attr = (textFormater != null) ? textFormater.getEraseAttributes() : Attributes.DEFAULT;
+        screenBuffer.eraseRect(row, col, row, end, attr);
 
         logger.debug("ECH: {} Zeichen in Zeile {}, Spalten {}..{} gelöscht (1-basiert).",
                 (end - col + 1), row + 1, col + 1, end + 1);
@@ -79,23 +69,6 @@ public class EraseCharacterHandler {
 
     // ----- helpers -----
 
-    private int parseCount(String sequence) {
-        try {
-            Matcher m = CSI_ECH.matcher(sequence);
-            if (!m.matches()) {
-                logger.debug("Keine ECH-Sequenz, ignoriert: {}", sequence);
-                return 0;
-            }
-            String grp = m.group(1);
-            if (grp == null || grp.isEmpty()) return 1; // default
-            int v = Integer.parseInt(grp);
-            return (v <= 0) ? 1 : v; // non-positive treated as 1
-        } catch (Exception e) {
-            logger.debug("Parsen von ECH '{}' fehlgeschlagen: {}", sequence, e.toString());
-            return 1;
-        }
-    }
-
     private int getLeftMargin() {
         if (leftRightMarginModeHandler != null && leftRightMarginModeHandler.isLeftRightMarginModeEnabled()) {
             return Math.max(0, leftRightMarginModeHandler.getLeftMargin());
@@ -1,9 +1,8 @@
 package org.msv.vt100.ansiisequences;
 
-import org.msv.vt100.core.Cell;
 import org.msv.vt100.core.Cursor;
 import org.msv.vt100.core.ScreenBuffer;
-import org.msv.vt100.util.StyleUtils;
+import org.msv.vt100.core.Attributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,9 +54,7 @@ public class ErasingSequences {
             clearRangeInLine(row, col, getRightMargin());
 
             // 2) Clear all lines after current (within margins)
-            for (int r = row + 1; r < rows; r++) {
-                clearLineWithinMargins(r);
-            }
+            clearRows(row + 1, rows - 1, getLeftMargin(), getRightMargin());
 
             logger.debug("ED(0): von Cursor bis Bildschirmende gelöscht ab Zeile {}, Spalte {} (1-basiert).",
                     row + 1, col + 1);
@@ -69,9 +66,7 @@ public class ErasingSequences {
         performWithCursorRestore(() -> {
             int rows = screenBuffer.getRows();
             int cols = screenBuffer.getColumns();
-            for (int r = 0; r < rows; r++) {
-                clearRangeInLineFullWidth(r, cols - 1);
-            }
+            clearRows(0, rows - 1, 0, cols - 1);
             logger.debug("ED(2): gesamten Bildschirm gelöscht (volle Breite, alle Zeilen).");
         });
     }
@@ -121,18 +116,9 @@ public class ErasingSequences {
         int left = getLeftMargin();
         int right = getRightMargin();
 
-        // Shift lines up within [currentRow .. bottom - n]
-        for (int row = currentRow; row <= bottom - n; row++) {
-            for (int col = left; col <= right; col++) {
-                Cell src = screenBuffer.getCell(row + n, col);
-                screenBuffer.setCell(row, col, cloneCell(src));
-            }
-        }
-
-        // Clear bottom n lines in region (within margins)
-        for (int row = bottom - n + 1; row <= bottom; row++) {
-            clearRangeInLine(row, left, right);
-        }
+        // Lines below move up within the margins; the bottom n lines are cleared.
+        // Full width is a row rotation in the buffer.
+        screenBuffer.shiftRowsInRect(currentRow, left, bottom, right, n, eraseAttributes());
 
         logger.debug("DL: {} Zeile(n) bei Zeile {} innerhalb Bereich {}..{}, Spalten {}..{} gelöscht (1-basiert).",
                 n, currentRow + 1, top + 1, bottom + 1, left + 1, right + 1);
@@ -151,12 +137,10 @@ public class ErasingSequences {
         }
     }
 
-    /** Clears a full line range ignoring margins (used by ED(2)). */
-    private void clearRangeInLineFullWidth(int row, int endCol) {
-        String style = eraseStyle();
-        for (int col = 0; col <= endCol; col++) {
-            screenBuffer.setCell(row, col, new Cell(" ", style));
-        }
+    /** Clears rows {@code fromRow..toRow} between two columns (inclusive); empty ranges are a no-op. */
+    private void clearRows(int fromRow, int toRow, int startCol, int endCol) {
+        if (fromRow > toRow || startCol > endCol) return;
+        screenBuffer.eraseRect(fromRow, startCol, toRow, endCol, eraseAttributes());
     }
 
     /** Clears a line within current margins. */
@@ -171,10 +155,7 @@ public class ErasingSequences {
         endCol = Math.max(0, Math.min(endCol,   maxCols - 1));
         if (endCol < startCol) return;
 
-        String style = eraseStyle();
-        for (int col = startCol; col <= endCol; col++) {
-            screenBuffer.setCell(row, col, new Cell(" ", style));
-        }
+        screenBuffer.eraseRect(row, startCol, row, endCol, eraseAttributes());
     }
 
     /** Returns current left margin or 0 if margins disabled. */
@@ -194,13 +175,9 @@ public class ErasingSequences {
         return max;
     }
 
-    /** Defensive clone for Cell to avoid aliasing when shifting lines. */
-    private Cell cloneCell(Cell c) {
-        return new Cell(c.character(), c.style());
-    }
 
-    /** Style to use when erasing/clearing cells. */
-    private String eraseStyle() {
-        return (textFormater != null) ? textFormater.getEraseFillStyle() : StyleUtils.getDefaultStyle();
+    /** Attributes to use when erasing/clearing cells. */
+    private int eraseAttributes() {
+        return (textFormater != null) ? textFormater.getEraseAttributes() : Attributes.DEFAULT;
     }
 }
@@ -5,10 +5,16 @@ import org.msv.vt100.core.ScreenBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-public class EscapeSequenceHandler {
+/**
+ * Routes parsed ESC and CSI sequences to the individual handlers.
+ * Notes:
+ * - CSI sequences are routed through a table indexed by the final byte; each entry receives the
+ *   pre-parsed integer parameters, so no sequence is turned into a String or parsed twice.
+ * - Each entry accepts only the private marker and intermediate byte it implements; plain entries
+ *   (wrapped with {@link #plain(CsiHandler)}) reject both, so e.g. CSI ? J (DECSED) or CSI > 4;1 m
+ *   (modifyOtherKeys) are logged as unsupported instead of running as ED or SGR.
+ */
+public class EscapeSequenceHandler implements CsiHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(EscapeSequenceHandler.class);
 
@@ -29,6 +35,9 @@ public class EscapeSequenceHandler {
     private final Cursor cursor;
     private final LineAttributeHandler lineAttributeHandler;
     private final InsertLineHandler insertLineHandler;
+    private final TerminalResizeHandler terminalResizeHandler;
+
+    private final CsiHandler[] csiHandlers = new CsiHandler[0x80];
 
     public EscapeSequenceHandler(
             ErasingSequences erasingSequences,
@@ -48,7 +57,8 @@ public class EscapeSequenceHandler {
             LineAttributeHandler lineAttributeHandler,
             ScreenBuffer screenBuffer,
             LeftRightMarginSequenceHandler leftRightMarginSequenceHandler,
-            InsertLineHandler insertLineHandler) {
+            InsertLineHandler insertLineHandler,
+            TerminalResizeHandler terminalResizeHandler) {
 
         this.erasingSequences = erasingSequences;
         this.cursorMovementHandler = cursorMovementHandler;
@@ -70,6 +80,7 @@ public class EscapeSequenceHandler {
         );
         this.leftRightMarginSequenceHandler = leftRightMarginSequenceHandler;
         this.insertLineHandler = insertLineHandler;
+        this.terminalResizeHandler = terminalResizeHandler;
         this.erasingSequences.setTextFormater(textFormater);
         this.insertLineHandler.setTextFormater(textFormater);
         this.scrollingRegionHandler.setTextFormater(textFormater);
@@ -77,177 +88,194 @@ public class EscapeSequenceHandler {
         this.fillRectangularAreaHandler.setTextFormater(textFormater);
         this.fillRectangularAreaHandler.setLeftRightMarginModeHandler(leftRightMarginModeHandler);
         this.fillRectangularAreaHandler.setScrollingRegionHandler(scrollingRegionHandler);
+        registerCsiHandlers();
     }
-    public void processEscapeSequence(String sequence) {
-        if (sequence.startsWith("\u001B")) {
-            sequence = sequence.substring(1);
-        }
-
-        logger.info("Escape-Sequenz empfangen: {}", sequence);
-
-        switch (sequence) {
-            case "[?6l":
-                decomHandler.disableRelativeCursorMode();
-                break;
-            case "[?6h":
-                decomHandler.enableRelativeCursorMode();
-                break;
-            case "(K":
-                charsetSwitchHandler.switchToASCIICharset();
-                break;
-            case "(0":
-                charsetSwitchHandler.switchToGraphicsCharset();
-                break;
-            case "[?25h":
-                cursorVisibilityManager.showCursor();
-                break;
-            case "[?25l":
-                cursorVisibilityManager.hideCursor();
-                break;
-            case "[0J":
-                erasingSequences.clearFromCursorToEndOfScreen();
-                break;
-            case "[2J":
-                erasingSequences.clearEntireScreen();
-                break;
-            case "[2K":
-                erasingSequences.clearEntireLine();
-                break;
-            case "[0K":
-                erasingSequences.clearFromCursorToEndOfLine();
-                break;
-            case "[?7h":
-                cursorController.setWraparoundModeEnabled(false);
-                logger.info("Automatischer Zeilenumbruchmodus aktiviert.");
-                break;
-            case "[?7l":
-                cursorController.setWraparoundModeEnabled(true);
-                logger.info("Automatischer Zeilenumbruchmodus deaktiviert.");
-                break;
-            case "[?42h":
-                nrcsHandler.enableNrcsMode(NrcsHandler.NrcsMode.GERMAN);
-                break;
-            case "[?42l":
-                nrcsHandler.disableNrcsMode();
-                break;
-            case ">", "[2*x", "[?68l", "#5":
-                break;
-            case "[?69h":
-                leftRightMarginModeHandler.enableLeftRightMarginMode();
-                break;
-            case "[?69l":
-                leftRightMarginModeHandler.disableLeftRightMarginMode();
-                break;
-            case "#6":
-                lineAttributeHandler.setDoubleWidthLine(cursor.getRow(),true);
-                logger.info("Doppelte Breite für Zeile {} gesetzt", cursor.getRow() + 1);
-                break;
-            default:
-                if (sequence.matches("\\[\\d+;\\d+r")) {
-                    scrollingRegionHandler.setScrollingRegion(sequence);
-
-                    int top = scrollingRegionHandler.getWindowStartRow();
-                    int left = leftRightMarginModeHandler.isLeftRightMarginModeEnabled()
-                            ? leftRightMarginModeHandler.getLeftMargin()
-                            : 0;
-
-                    cursor.setPosition(top, left);
-                    logger.info("Cursor in die linke obere Ecke des Bereichs verschoben: Zeile={}, Spalte={}", top + 1, left + 1);
-                    return;
-                }
-
-                else if (sequence.matches("\\[\\d+;\\d+H")) {
-                    cursorMovementHandler.handleCursorMovement(sequence);
-                }
-                else if (sequence.matches("\\[([0-9;]*?)\\$x")) {
-                    fillRectangularAreaHandler.handleDECFRA(sequence);
-                    return;
-                }
 
-                else if (sequence.matches("\\[(\\d+)M")) {
-                    Matcher matcher = Pattern.compile("\\[(\\d+)M").matcher(sequence);
-                    if (matcher.matches()) {
-                        int n = Integer.parseInt(matcher.group(1));
-                        erasingSequences.deleteLines(n);
-                        return;
-                    }
-                    break;
-                }
-                else if (sequence.matches("\\[(\\d+(;\\d+)*)?m")) {
-                    textFormater.handleSgrSequence(sequence);
-                }
-                else if (sequence.matches("\\[\\d+;\\d+s")) {
-                    leftRightMarginSequenceHandler.handleLeftRightMarginSequence(sequence);
+    private void registerCsiHandlers() {
+        csiHandlers['h'] = (pm, im, p, n, f) -> {
+            if (im == 0) setModes(pm, p, n, true); else logUnsupported(pm, im, p, n, f);
+        };
+        csiHandlers['l'] = (pm, im, p, n, f) -> {
+            if (im == 0) setModes(pm, p, n, false); else logUnsupported(pm, im, p, n, f);
+        };
+        csiHandlers['J'] = plain((pm, im, p, n, f) -> eraseInDisplay(CsiHandler.param(p, n, 0, 0)));
+        csiHandlers['K'] = plain((pm, im, p, n, f) -> eraseInLine(CsiHandler.param(p, n, 0, 0)));
+        csiHandlers['H'] = plain((pm, im, p, n, f) ->
+                cursorMovementHandler.handleCursorMovement(CsiHandler.param(p, n, 0, 1), CsiHandler.param(p, n, 1, 1)));
+        csiHandlers['f'] = csiHandlers['H'];
+        csiHandlers['m'] = plain((pm, im, p, n, f) -> textFormater.handleSgr(p, n));
+        csiHandlers['r'] = plain((pm, im, p, n, f) -> setTopBottomMargins(CsiHandler.param(p, n, 0, 0), CsiHandler.param(p, n, 1, 0)));
+        csiHandlers['s'] = plain((pm, im, p, n, f) -> setLeftRightMargins(p, n));
+        csiHandlers['M'] = plain((pm, im, p, n, f) -> erasingSequences.deleteLines(CsiHandler.param(p, n, 0, 1)));
+        csiHandlers['L'] = plain((pm, im, p, n, f) -> insertLineHandler.handleInsertLine(CsiHandler.param(p, n, 0, 1)));
+        csiHandlers['@'] = plain((pm, im, p, n, f) -> insertLineHandler.handleInsertCharacters(CsiHandler.param(p, n, 0, 1)));
+        csiHandlers['X'] = plain((pm, im, p, n, f) -> eraseCharacterHandler.handleEraseCharacter(CsiHandler.param(p, n, 0, 1)));
+        csiHandlers['x'] = (pm, im, p, n, f) -> {
+            if (pm == 0 && im == '$') {
+                fillRectangularAreaHandler.handleDECFRA(p, n);
+            } else if (pm != 0 || im != '*') {          // DECSACE (CSI Ps * x) is accepted and ignored
+                logUnsupported(pm, im, p, n, f);
+            }
+        };
+        csiHandlers['v'] = (pm, im, p, n, f) -> {
+            if (pm == 0 && im == '$') {
+                deccraSequenceHandler.handleDECCRA(p, n);
+            } else {
+                logUnsupported(pm, im, p, n, f);
+            }
+        };
+    }
 
-                    int top = scrollingRegionHandler.getWindowStartRow();
-                    int left = leftRightMarginModeHandler.isLeftRightMarginModeEnabled()
-                            ? leftRightMarginModeHandler.getLeftMargin()
-                            : 0;
+    /** Entry for a sequence without private marker or intermediate byte; other forms are logged as unsupported. */
+    private CsiHandler plain(CsiHandler handler) {
+        return (pm, im, p, n, f) -> {
+            if (pm != 0 || im != 0) {
+                logUnsupported(pm, im, p, n, f);
+            } else {
+                handler.onCsi(pm, im, p, n, f);
+            }
+        };
+    }
 
-                    cursor.setPosition(top, left);
-                    logger.info("Cursor nach Setzen der Ränder in die linke obere Ecke verschoben: Zeile={}, Spalte={}", top + 1, left + 1);
-                }
+    /** Dispatches a CSI sequence through the final-byte table. */
+    @Override
+    public void onCsi(char privateMarker, char intermediate, int[] params, int paramCount, char finalByte) {
+        CsiHandler h = (finalByte < csiHandlers.length) ? csiHandlers[finalByte] : null;
+        if (h == null) {
+            logUnsupported(privateMarker, intermediate, params, paramCount, finalByte);
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("CSI-Sequenz empfangen: {}", describe(privateMarker, intermediate, params, paramCount, finalByte));
+        }
+        h.onCsi(privateMarker, intermediate, params, paramCount, finalByte);
+    }
 
-                else if (sequence.matches("\\[([0-9;]*?)\\$v")) {
-                    deccraSequenceHandler.handleDECCRA(sequence);
+    /** Dispatches an ESC sequence (ESC [intermediate] final). */
+    public void onEsc(char intermediate, char finalByte) {
+        switch (intermediate) {
+            case 0 -> {
+                switch (finalByte) {
+                    case '\\', '>' -> { }                      // ST (string terminator), DECKPNM
+                    default -> logger.warn("Unbekannte oder nicht unterstützte Escape-Sequenz: {}", finalByte);
                 }
-                else if (sequence.matches("\\[\\d+X")) {
-                    eraseCharacterHandler.handleEraseCharacterSequence(sequence);
+            }
+            case '(' -> {
+                switch (finalByte) {
+                    case 'B', 'K' -> charsetSwitchHandler.switchToASCIICharset();
+                    case '0' -> charsetSwitchHandler.switchToGraphicsCharset();
+                    default -> logger.warn("Nicht unterstützter G0-Zeichensatz: ({}", finalByte);
                 }
-                else if (sequence.matches("\\[\\d*L")) {
-                    insertLineHandler.handleInsertLine(sequence);
+            }
+            case '#' -> {
+                switch (finalByte) {
+                    case '5' -> { }                              // DECSWL: single width is the default
+                    case '6' -> {
+                        lineAttributeHandler.setDoubleWidthLine(cursor.getRow(), true);
+                        logger.debug("Doppelte Breite für Zeile {} gesetzt", cursor.getRow() + 1);
+                    }
+                    default -> logger.warn("Unbekannte oder nicht unterstützte Escape-Sequenz: #{}", finalByte);
                 }
-
-
-                else {
-                    logger.warn("Unbekannte oder nicht unterstützte Escape-Sequenz: {}", sequence);              }
-                break;
+            }
+            default -> logger.warn("Unbekannte oder nicht unterstützte Escape-Sequenz: {}{}", intermediate, finalByte);
         }
     }
 
-    public boolean isEndOfSequence(StringBuilder currentSequence) {
-        String currentSeqString = currentSequence.toString();
+    // ---- CSI actions ----
 
-        if (currentSeqString.matches("\\u001B\\[\\d+;\\d+r")) {
-            return true;
-        }
-        if (currentSeqString.matches("\\u001B\\[([0-9;]*?)\\$x")) {
-            return true;
-        }
-        if (currentSeqString.matches("\\u001B\\[\\d*L")) {
-            return true;
-        }
-        if (currentSeqString.matches("\\u001B\\[\\d+X")) {
-            return true;
-        }
-        if (currentSeqString.matches("\\u001B\\[\\d+;\\d+H")) {
-            return true;
-        }
-        if (currentSeqString.matches("\\u001B\\[\\d+K")) {
-            return true;
+    private void setModes(char privateMarker, int[] params, int paramCount, boolean set) {
+        if (privateMarker != '?') {
+            logger.warn("Nicht unterstützter ANSI-Modus (SM/RM), Parameter={}", paramCount > 0 ? params[0] : 0);
+            return;
         }
-        if (currentSeqString.matches("\\u001B\\[(\\d+)M")) {
-            return true;
+        for (int i = 0; i < paramCount; i++) {
+            setPrivateMode(params[i], set);
         }
-        if (currentSeqString.matches("\\u001B\\[(\\d+(;\\d+)*)?m")) {
-            return true;
+    }
+
+    private void setPrivateMode(int mode, boolean set) {
+        switch (mode) {
+            case 3 -> terminalResizeHandler.setColumnMode(set);     // DECCOLM
+            case 6 -> {
+                if (set) decomHandler.enableRelativeCursorMode();
+                else decomHandler.disableRelativeCursorMode();
+            }
+            case 7 -> {
+                cursorController.setWraparoundModeEnabled(!set);
+                logger.debug("Automatischer Zeilenumbruchmodus {}.", set ? "aktiviert" : "deaktiviert");
+            }
+            case 25 -> {
+                if (set) cursorVisibilityManager.showCursor();
+                else cursorVisibilityManager.hideCursor();
+            }
+            case 42 -> {
+                if (set) nrcsHandler.enableNrcsMode(NrcsHandler.NrcsMode.GERMAN);
+                else nrcsHandler.disableNrcsMode();
+            }
+            case 68 -> { }                                       // DECKBUM: keyboard usage, nothing to do
+            case 69 -> {
+                if (set) leftRightMarginModeHandler.enableLeftRightMarginMode();
+                else leftRightMarginModeHandler.disableLeftRightMarginMode();
+            }
+            default -> logger.warn("Nicht unterstützter DEC-Privatmodus: ?{}{}", mode, set ? 'h' : 'l');
         }
-        if (currentSeqString.equals("\u001B[?69h") || currentSeqString.equals("\u001B[?69l")) {
-            return true;
+    }
+
+    private void eraseInDisplay(int mode) {
+        switch (mode) {
+            case 0 -> erasingSequences.clearFromCursorToEndOfScreen();
+            case 2 -> erasingSequences.clearEntireScreen();
+            default -> logger.warn("Nicht unterstützter ED-Modus: {}", mode);
         }
-        if (currentSeqString.matches("\\u001B\\[\\d+;\\d+s")) {
-            return true;
+    }
+
+    private void eraseInLine(int mode) {
+        switch (mode) {
+            case 0 -> erasingSequences.clearFromCursorToEndOfLine();
+            case 2 -> erasingSequences.clearEntireLine();
+            default -> logger.warn("Nicht unterstützter EL-Modus: {}", mode);
         }
-        if (currentSeqString.matches("\\u001B\\[[0-9;]*\\$v")) {
-            return true;
+    }
+
+    private void setTopBottomMargins(int top1, int bottom1) {
+        scrollingRegionHandler.setScrollingRegion(top1, bottom1);
+        moveCursorToRegionOrigin();
+    }
+
+    private void setLeftRightMargins(int[] params, int paramCount) {
+        if (paramCount == 0) {
+            logger.warn("Nicht unterstützte Sequenz: CSI s (Cursor speichern)");
+            return;
         }
+        leftRightMarginSequenceHandler.handleLeftRightMarginSequence(
+                CsiHandler.param(params, paramCount, 0, 0), CsiHandler.param(params, paramCount, 1, 0));
+        moveCursorToRegionOrigin();
+    }
 
-        return switch (currentSeqString) {
-            case "\u001B[0J", "\u001B[?6l","\u001B[?6h", "\u001B(K", "\u001B[?25h", "\u001B[?25l","\u001B[?42h", "\u001B[?68l", "\u001B[?7h",
-                 "\u001B>", "\u001BP4.zGerman()", "\u001B[2J", "\u001B[2*x", "\u001B(0", "\u001B[7m",
-                 "\u001B[0m", "\u001B[4m", "\u001B[2K", "\u001B[5m","\u001B#6","\u001B#5","\u001B[0K" -> true;
-            default -> false;
-        };
+    private void moveCursorToRegionOrigin() {
+        int top = scrollingRegionHandler.getWindowStartRow();
+        int left = leftRightMarginModeHandler.isLeftRightMarginModeEnabled()
+                ? leftRightMarginModeHandler.getLeftMargin()
+                : 0;
+        cursor.setPosition(top, left);
+        logger.debug("Cursor in die linke obere Ecke des Bereichs verschoben: Zeile={}, Spalte={}", top + 1, left + 1);
     }
 
-}
\ No newline at end of file
+    // ---- logging helpers (only used off the hot path) ----
+
+    private void logUnsupported(char privateMarker, char intermediate, int[] params, int paramCount, char finalByte) {
+        logger.warn("Unbekannte oder nicht unterstützte Escape-Sequenz: {}",
+                describe(privateMarker, intermediate, params, paramCount, finalByte));
+    }
+
+    private static String describe(char privateMarker, char intermediate, int[] params, int paramCount, char finalByte) {
+        StringBuilder sb = new StringBuilder(16).append('[');
+        if (privateMarker != 0) sb.append(privateMarker);
+        for (int i = 0; i < paramCount; i++) {
+            if (i > 0) sb.append(';');
+            sb.append(params[i]);
+        }
+        if (intermediate != 0) sb.append(intermediate);
+        return sb.append(finalByte).toString();
+    }
+}
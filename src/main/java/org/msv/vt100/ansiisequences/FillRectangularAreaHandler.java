@@ -1,14 +1,10 @@
 package org.msv.vt100.ansiisequences;
 
-import org.msv.vt100.core.Cell;
 import org.msv.vt100.core.ScreenBuffer;
-import org.msv.vt100.util.StyleUtils;
+import org.msv.vt100.core.Attributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Handles DECFRA (Fill Rectangular Area): CSI Pch;Pts;Pls;Pbs;Prs $x
  * Semantics:
@@ -18,7 +14,7 @@ import java.util.regex.Pattern;
  * - When a scrolling region (DECSTBM) is set, the effective fill area is intersected with its vertical bounds.
  * - Coordinates are clamped to the screen. Empty intersection => no-op.
  * Notes:
- * - DECFRA uses the current rendition, so we apply the current TextFormater style
+ * - DECFRA uses the current rendition, so we apply the current TextFormater attributes
  *   (including reverse) instead of defaults.
  */
 public class FillRectangularAreaHandler {
@@ -32,10 +28,6 @@ public class FillRectangularAreaHandler {
     // NEW
     private TextFormater textFormater;
 
-    // CSI Pch;Pts;Pls;Pbs;Prs $x
-    private static final Pattern CSI_DECFRA =
-            Pattern.compile("^\\u001B?\\[(\\d*);(\\d*);(\\d*);(\\d*);(\\d*)\\$x$");
-
     public FillRectangularAreaHandler(ScreenBuffer screenBuffer) {
         this.screenBuffer = screenBuffer;
     }
@@ -54,24 +46,17 @@ public class FillRectangularAreaHandler {
     }
 
     /**
-     * Parses and executes DECFRA. Invalid or out-of-bounds rectangles are safely ignored.
+     * Executes DECFRA from pre-parsed parameters. Invalid or out-of-bounds rectangles are safely ignored.
      */
-    public void handleDECFRA(String sequence) {
-        Matcher m = CSI_DECFRA.matcher(sequence);
-        if (!m.matches()) {
-            logger.debug("Keine DECFRA-Sequenz, ignoriert: {}", sequence);
-            return;
-        }
-
-        // Parse parameters with safe defaults
+    public void handleDECFRA(int[] params, int paramCount) {
         int rows = screenBuffer.getRows();
         int cols = screenBuffer.getColumns();
 
-        int Pch = parseOrDefault(m.group(1), 32);     // default to space if empty/0
-        int Pts = parseOrDefault(m.group(2), 1);
-        int Pls = parseOrDefault(m.group(3), 1);
-        int Pbs = parseOrDefault(m.group(4), rows);
-        int Prs = parseOrDefault(m.group(5), cols);
+        int Pch = CsiHandler.param(params, paramCount, 0, 32);     // default to space if empty/0
+        int Pts = CsiHandler.param(params, paramCount, 1, 1);
+        int Pls = CsiHandler.param(params, paramCount, 2, 1);
+        int Pbs = CsiHandler.param(params, paramCount, 3, rows);
+        int Prs = CsiHandler.param(params, paramCount, 4, cols);
 
         // Clamp coordinates to screen bounds [1..rows], [1..cols]
         Pts = clamp(Pts, rows);
@@ -112,7 +97,7 @@ public class FillRectangularAreaHandler {
 
         // Execute fill
         char fillChar = (char) (Pch & 0xFFFF);
-        fillArea(Pts - 1, Pls - 1, Pbs - 1, Prs - 1, String.valueOf(fillChar));
+        fillArea(Pts - 1, Pls - 1, Pbs - 1, Prs - 1, fillChar);
 
         logger.debug("DECFRA füllte Bereich ({},{} → {},{}) mit '{}'(U+{}).",
                 Pts, Pls, Pbs, Prs, printable(fillChar), String.format("%04X", (int) fillChar));
@@ -120,23 +105,9 @@ public class FillRectangularAreaHandler {
 
     // ---- internals ----
 
-    private void fillArea(int top, int left, int bottom, int right, String ch) {
-        String style = (textFormater != null) ? textFormater.getCurrentStyle() : StyleUtils.getDefaultStyle();
-        for (int row = top; row <= bottom; row++) {
-            for (int col = left; col <= right; col++) {
-                screenBuffer.setCell(row, col, new Cell(ch, style));
-            }
-        }
-    }
-
-    private int parseOrDefault(String raw, int def) {
-        if (raw == null || raw.isEmpty()) return def;
-        try {
-            int v = Integer.parseInt(raw);
-            return (v == 0) ? def : v; // treat 0 as "default" per common CSI practice
-        } catch (NumberFormatException e) {
-            return def;
-        }
+    private void fillArea(int top, int left, int bottom, int right, char ch) {
+        int attr = (textFormater != null) ? textFormater.getCurrentAttributes() : Attributes.DEFAULT;
+        screenBuffer.fillRect(top, left, bottom, right, ch, attr);
     }
 
     private int clamp(int v, int hi) {
@@ -1,21 +1,18 @@
 package org.msv.vt100.ansiisequences;
 
-import org.msv.vt100.core.Cell;
 import org.msv.vt100.core.ScreenBuffer;
-import org.msv.vt100.util.StyleUtils;
+import org.msv.vt100.core.Attributes;
 import org.msv.vt100.core.Cursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
- * Handles "Insert Line" (IL) control sequence: CSI Pn L
+ * Handles "Insert Line" (IL) control sequence: CSI Pn L, and "Insert Character" (ICH): CSI Pn @
  * - Inserts Pn blank lines at and below the current row within the scrolling region.
  * - Lines that would roll off the bottom of the region are discarded.
  * - Inserted lines are cleared using the current default style.
  * - Left/right margins (DECVLRM) are honored if enabled; otherwise, the full width is used.
+ * - ICH shifts the rest of the line right up to the right margin; cells pushed past it are lost.
  */
 public class InsertLineHandler {
 
@@ -29,9 +26,6 @@ public class InsertLineHandler {
     // NEW
     private TextFormater textFormater;
 
-    // CSI Pn L (Pn optional, default 1)
-    private static final Pattern CSI_IL = Pattern.compile("^\\u001B?\\[(\\d*)L$");
-
     public InsertLineHandler(ScreenBuffer screenBuffer,
                              Cursor cursor,
                              ScrollingRegionHandler scrollingRegionHandler,
@@ -47,12 +41,11 @@ public class InsertLineHandler {
     }
 
     /**
-     * Parses and applies IL (Insert Line): CSI Pn L.
+     * Applies IL (Insert Line): CSI Pn L. Non-positive counts are treated as 1.
      * If cursor is outside the scrolling region, the sequence has no effect.
      */
-    public void handleInsertLine(String sequence) {
-        int n = parseCount(sequence);
-        if (n <= 0) return;
+    public void handleInsertLine(int n) {
+        if (n <= 0) n = 1;
 
         final int currentRow = cursor.getRow();
         final int top = scrollingRegionHandler.getWindowStartRow();
@@ -80,37 +73,38 @@ public class InsertLineHandler {
             return;
         }
 
-        // Shift lines down within [currentRow .. bottom], respecting margins
-        shiftDown(currentRow, bottom, left, right, n);
-
-        // Clear the n inserted lines at [currentRow .. currentRow + n - 1]
-        for (int row = currentRow; row < currentRow + n; row++) {
-            clearLine(row, left, right);
-        }
+        // Shift lines down within [currentRow .. bottom] and the margins; the n inserted lines are cleared.
+        // Full width is a row rotation in the buffer.
+        screenBuffer.shiftRowsInRect(currentRow, left, bottom, right, -n, eraseAttributes());
 
         logger.debug("IL hat {} Zeile(n) bei Zeile {} innerhalb Bereich {}..{}, Spalten {}..{} eingefügt (1-basiert).",
                 n, currentRow + 1, top + 1, bottom + 1, left + 1, right + 1);
     }
 
-    // ----- helpers -----
+    /**
+     * Applies ICH (Insert Character): CSI Pn @. Non-positive counts are treated as 1.
+     * If the cursor is outside the left/right margins, the sequence has no effect.
+     */
+    public void handleInsertCharacters(int n) {
+        if (n <= 0) n = 1;
+
+        final int row = cursor.getRow();
+        final int col = cursor.getColumn();
+        final int left = getLeftMargin();
+        final int right = getRightMargin();
 
-    private int parseCount(String sequence) {
-        try {
-            Matcher m = CSI_IL.matcher(sequence);
-            if (!m.matches()) {
-                logger.debug("Keine IL-Sequenz, ignoriert: {}", sequence);
-                return 0;
-            }
-            String grp = m.group(1);
-            if (grp == null || grp.isEmpty()) return 1; // default Pn
-            int val = Integer.parseInt(grp);
-            return (val <= 0) ? 1 : val; // VT semantics: non-positive -> treat as 1
-        } catch (Exception e) {
-            logger.debug("Parsen von IL '{}' fehlgeschlagen: {}", sequence, e.toString());
-            return 1;
+        if (col < left || col > right) {
+            logger.debug("ICH ignoriert: Cursorspalte {} außerhalb der Ränder {}..{} (1-basiert).",
+                    col + 1, left + 1, right + 1);
+            return;
         }
+
+        screenBuffer.insertBlankCells(row, col, n, right, eraseAttributes());
+        logger.debug("ICH hat {} Zeichen in Zeile {} ab Spalte {} eingefügt (1-basiert).", n, row + 1, col + 1);
     }
 
+    // ----- helpers -----
+
     private int getLeftMargin() {
         if (leftRightMarginModeHandler != null && leftRightMarginModeHandler.isLeftRightMarginModeEnabled()) {
             return Math.max(0, leftRightMarginModeHandler.getLeftMargin());
@@ -126,24 +120,8 @@ public class InsertLineHandler {
         return max;
     }
 
-    private void shiftDown(int fromRow, int toRow, int left, int right, int n) {
-        // Move content down bottom-up; deep-copy cells to avoid aliasing
-        for (int row = toRow; row >= fromRow + n; row--) {
-            for (int col = left; col <= right; col++) {
-                org.msv.vt100.core.Cell src = screenBuffer.getCell(row - n, col);
-                screenBuffer.setCell(row, col, cloneCell(src));
-            }
-        }
+    private int eraseAttributes() {
+        return (textFormater != null) ? textFormater.getEraseAttributes() : Attributes.DEFAULT;
     }
 
-    private void clearLine(int row, int left, int right) {
-        String style = (textFormater != null) ? textFormater.getEraseFillStyle() : StyleUtils.getDefaultStyle();
-        for (int col = left; col <= right; col++) {
-            screenBuffer.setCell(row, col, new Cell(" ", style));
-        }
-    }
-
-    private Cell cloneCell(Cell c) {
-        return new Cell(c.character(), c.style());
-    }
 }
@@ -64,6 +64,15 @@ public class LeftRightMarginModeHandler {
         logger.debug("Ränder gesetzt auf links={}, rechts={} (0-basiert, inkl.).", leftMargin, rightMargin);
     }
 
+    /**
+     * Resets the margins to the full width of a screen with {@code columns} columns, e.g. after a resize.
+     */
+    public void resetMargins(int columns) {
+        this.leftMargin = 0;
+        this.rightMargin = Math.max(0, columns - 1);
+        logger.debug("Ränder auf volle Breite zurückgesetzt: {} Spalten.", columns);
+    }
+
     public int getLeftMargin() {
         return leftMargin;
     }
@@ -4,9 +4,6 @@ import org.msv.vt100.core.ScreenBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Handles DECSLRM (CSI Pl;Pr s) — Set Left and Right Margins.
  * Notes:
@@ -27,9 +24,6 @@ public class LeftRightMarginSequenceHandler {
     private int leftMargin = 0;
     private int rightMargin;
 
-    // CSI Pl;Pr s  (parameters optional but both expected; we apply safe defaults)
-    private static final Pattern CSI_LR_MARGINS = Pattern.compile("^\\u001B?\\[(\\d*);(\\d*)s$");
-
     public LeftRightMarginSequenceHandler(
             LeftRightMarginModeHandler leftRightMarginModeHandler,
             CursorController cursorController,
@@ -41,26 +35,20 @@ public class LeftRightMarginSequenceHandler {
     }
 
     /**
-     * Parses and applies DECSLRM (CSI Pl;Pr s).
+     * Applies DECSLRM (CSI Pl;Pr s) with 1-based parameters; 0 means "default".
      * If DECVLRM is disabled, the sequence is ignored as per DEC behavior.
      */
-    public void handleLeftRightMarginSequence(String sequence) {
+    public void handleLeftRightMarginSequence(int left1, int right1) {
         // Require DECVLRM enabled
         if (!leftRightMarginModeHandler.isLeftRightMarginModeEnabled()) {
-            logger.debug("DECSLRM ignoriert, da DECVLRM deaktiviert ist: {}", sequence);
-            return;
-        }
-
-        Matcher m = CSI_LR_MARGINS.matcher(sequence);
-        if (!m.matches()) {
-            logger.debug("Keine DECSLRM-Sequenz, ignoriert: {}", sequence);
+            logger.debug("DECSLRM ignoriert, da DECVLRM deaktiviert ist: {};{}", left1, right1);
             return;
         }
 
         int cols = screenBuffer.getColumns();
 
-        int Pl = parseCol(m.group(1), 1, cols);      // default 1 if empty/0
-        int Pr = parseCol(m.group(2), cols, cols);   // default max if empty/0
+        int Pl = (left1 <= 0) ? 1 : left1;           // default 1 if empty/0
+        int Pr = (right1 <= 0) ? cols : right1;      // default max if empty/0
 
         // Validate and clamp to [1..cols]
         Pl = Math.max(1, Math.min(Pl, cols));
@@ -87,6 +75,15 @@ public class LeftRightMarginSequenceHandler {
         logger.debug("DECSLRM angewendet: Spalten {}..{} (1-basiert).", Pl, Pr);
     }
 
+    /** Resets the margins to the full current screen width and propagates them (after a resize). */
+    public void resetMargins() {
+        int cols = screenBuffer.getColumns();
+        this.leftMargin = 0;
+        this.rightMargin = cols - 1;
+        leftRightMarginModeHandler.resetMargins(cols);
+        cursorController.setLeftRightMargins(0, cols - 1);
+    }
+
     public int getLeftMargin() {
         return leftMargin;
     }
@@ -94,17 +91,4 @@ public class LeftRightMarginSequenceHandler {
     public int getRightMargin() {
         return rightMargin;
     }
-
-    // ----- helpers -----
-
-    private int parseCol(String raw, int def, int max) {
-        if (raw == null || raw.isEmpty()) return def;
-        try {
-            int v = Integer.parseInt(raw);
-            if (v == 0) return def;       // 0 treated as default per typical CSI behavior
-            return Math.max(1, Math.min(v, max));
-        } catch (NumberFormatException e) {
-            return def;
-        }
-    }
 }
@@ -1,5 +1,7 @@
 package org.msv.vt100.ansiisequences;
 
+import org.msv.vt100.core.Attributes;
+
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -50,34 +52,22 @@ public class LineAttributeHandler {
     }
 
     /**
-     * Returns a canonical style string for the row to aid the renderer.
-     * We avoid hard-coding font sizes or colors; instead we expose semantic flags.
-     * Unknown keys are preserved by StyleUtils and can be interpreted downstream.
-     * Example keys:
-     * - "line-double-width: true"
-     * - "line-double-height: top|bottom|none"
+     * Returns the line attribute bits for the row ({@link Attributes#LINE_MASK} subset),
+     * to be OR-ed into the attribute word of every cell written on that row.
      */
-    public String getLineStyle(int row) {
+    public int getLineAttributes(int row) {
         EnumSet<LineAttr> set = lineAttrs.get(row);
         if (set == null || set.isEmpty()) {
-            return "line-double-width: false; line-double-height: none;";
+            return 0;
         }
-        boolean dw = set.contains(LineAttr.DOUBLE_WIDTH);
-        boolean dht = set.contains(LineAttr.DOUBLE_HEIGHT_TOP);
-        boolean dhb = set.contains(LineAttr.DOUBLE_HEIGHT_BOTTOM);
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("line-double-width: ").append(dw ? "true" : "false").append("; ");
-
-        if (dht) {
-            sb.append("line-double-height: top; ");
-        } else if (dhb) {
-            sb.append("line-double-height: bottom; ");
-        } else {
-            sb.append("line-double-height: none; ");
+        int bits = 0;
+        if (set.contains(LineAttr.DOUBLE_WIDTH)) bits |= Attributes.LINE_DOUBLE_WIDTH;
+        if (set.contains(LineAttr.DOUBLE_HEIGHT_TOP)) {
+            bits |= Attributes.LINE_DOUBLE_HEIGHT_TOP;
+        } else if (set.contains(LineAttr.DOUBLE_HEIGHT_BOTTOM)) {
+            bits |= Attributes.LINE_DOUBLE_HEIGHT_BOTTOM;
         }
-
-        return sb.toString().trim();
+        return bits;
     }
 
     // ---- internals ----
@@ -35,6 +35,9 @@ public class NrcsHandler {
     /** Current mapping table for the active NRCS. */
     private Map<Character, Character> nrcsMapping = Collections.emptyMap();
 
+    /** Same mapping as an ASCII-indexed table (null for identity). */
+    private char[] nrcsTable;
+
     public NrcsHandler() {
         // Default: US (identity) and disabled.
         loadMappingFor(NrcsMode.US);
@@ -76,6 +79,17 @@ public class NrcsHandler {
         return sb.toString();
     }
 
+    /** True if NRCS translation is active and not the identity mapping. */
+    public boolean isTranslating() {
+        return nrcsEnabled && nrcsTable != null;
+    }
+
+    /** Maps a single char through the current NRCS table (identity if disabled). */
+    public char translate(char c) {
+        char[] t = nrcsTable;
+        return (nrcsEnabled && t != null && c < t.length) ? t[c] : c;
+    }
+
 
 
 
@@ -126,5 +140,15 @@ public class NrcsHandler {
 
         // Freeze the map to avoid accidental mutation
         this.nrcsMapping = map.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(map);
+
+        if (map.isEmpty()) {
+            this.nrcsTable = null;
+        } else {
+            char[] table = new char[0x80];
+            for (char c = 0; c < table.length; c++) {
+                table[c] = map.getOrDefault(c, c);
+            }
+            this.nrcsTable = table;
+        }
     }
 }
@@ -1,14 +1,10 @@
 package org.msv.vt100.ansiisequences;
 
-import org.msv.vt100.core.Cell;
 import org.msv.vt100.core.ScreenBuffer;
-import org.msv.vt100.util.StyleUtils;
+import org.msv.vt100.core.Attributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 public class ScrollingRegionHandler {
     private static final Logger logger = LoggerFactory.getLogger(ScrollingRegionHandler.class);
 
@@ -23,9 +19,6 @@ public class ScrollingRegionHandler {
     private int windowStartRow = 0;
     private int windowEndRow;
 
-    // Pattern for CSI Pt;Pb r  (both params optional for full reset)
-    private static final Pattern CSI_SCROLL_REGION = Pattern.compile("^\\u001B?\\[(\\d*);?(\\d*)r$");
-
     public ScrollingRegionHandler(ScreenBuffer screenBuffer,
                                   LeftRightMarginModeHandler leftRightMarginModeHandler,
                                   LeftRightMarginSequenceHandler leftRightMarginSequenceHandler) {
@@ -41,56 +34,42 @@ public class ScrollingRegionHandler {
     }
 
     /**
-     * Parses and applies CSI Pt;Pb r (DECSTBM).
-     * Empty parameters mean "reset to full screen".
-     * Indices in the sequence are 1-based; internally we store 0-based.
+     * Applies CSI Pt;Pb r (DECSTBM).
+     * Zero (omitted) parameters mean "top of screen" / "bottom of screen".
+     * Indices are 1-based; internally we store 0-based.
      */
-    public void setScrollingRegion(String sequence) {
-        try {
-            Matcher m = CSI_SCROLL_REGION.matcher(sequence);
-            if (!m.matches()) {
-                logger.debug("Nicht-Scrollbereichs-Sequenz ignoriert: {}", sequence);
-                return;
-            }
-
-            int rows = screenBuffer.getRows();
-            // Defaults per spec: Pt=1, Pb=rows
-            int Pt = parseOrDefault(m.group(1), 1);
-            int Pb = parseOrDefault(m.group(2), rows);
-
-            // Clamp to [1..rows]
-            Pt = Math.max(1, Math.min(Pt, rows));
-            Pb = Math.max(1, Math.min(Pb, rows));
-
-            // Ensure Pt <= Pb
-            if (Pt > Pb) {
-                // Swap to keep a valid region instead of rejecting
-                int t = Pt; Pt = Pb; Pb = t;
-            }
-
-            int newStart = Pt - 1;
-            int newEnd   = Pb - 1;
-
-            if (!isValidScrollingRegion(newStart, newEnd)) {
-                // Fallback to full screen if invalid (shouldn't happen after clamping)
-                resetToFullScreen();
-                logger.debug("Ungültiger Bereich nach Begrenzung; auf Vollbild zurückgesetzt.");
-                return;
-            }
-
-            this.windowStartRow = newStart;
-            this.windowEndRow = newEnd;
-
-            int left = getCurrentLeftMargin();
-            int right = getCurrentRightMargin();
+    public void setScrollingRegion(int top1, int bottom1) {
+        int rows = screenBuffer.getRows();
+        // Defaults per spec: Pt=1, Pb=rows
+        int Pt = (top1 <= 0) ? 1 : top1;
+        int Pb = (bottom1 <= 0) ? rows : bottom1;
+
+        // Clamp to [1..rows]
+        Pt = Math.max(1, Math.min(Pt, rows));
+        Pb = Math.max(1, Math.min(Pb, rows));
+
+        // Ensure Pt <= Pb
+        if (Pt > Pb) {
+            // Swap to keep a valid region instead of rejecting
+            int t = Pt; Pt = Pb; Pb = t;
+        }
 
-            logger.debug("Scrollbereich gesetzt: Zeilen {}..{} (1-basiert), Spalten {}..{} (1-basiert)",
-                    windowStartRow + 1, windowEndRow + 1, left + 1, right + 1);
+        int newStart = Pt - 1;
+        int newEnd   = Pb - 1;
 
-        } catch (Exception e) {
-            // Be robust: on any parsing failure, reset to full screen
+        if (!isValidScrollingRegion(newStart, newEnd)) {
+            // Fallback to full screen if invalid (shouldn't happen after clamping)
             resetToFullScreen();
-            logger.debug("Scrollbereich '{}' konnte nicht geparst werden. Auf Vollbild zurückgesetzt.", sequence, e);
+            logger.debug("Ungültiger Bereich nach Begrenzung; auf Vollbild zurückgesetzt.");
+            return;
+        }
+
+        this.windowStartRow = newStart;
+        this.windowEndRow = newEnd;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Scrollbereich gesetzt: Zeilen {}..{} (1-basiert), Spalten {}..{} (1-basiert)",
+                    windowStartRow + 1, windowEndRow + 1, getCurrentLeftMargin() + 1, getCurrentRightMargin() + 1);
         }
     }
 
@@ -106,18 +85,8 @@ public class ScrollingRegionHandler {
         int height = windowEndRow - windowStartRow + 1;
         n = Math.min(n, height);
 
-        // Shift down: bottom to top to avoid overwriting; deep-copy cells to prevent aliasing
-        for (int row = windowEndRow; row >= windowStartRow + n; row--) {
-            for (int col = left; col <= right; col++) {
-                Cell src = screenBuffer.getCell(row - n, col);
-                screenBuffer.setCell(row, col, cloneCell(src));
-            }
-        }
-
-        // Clear top n lines within margins
-        for (int row = windowStartRow; row < windowStartRow + n; row++) {
-            clearLine(row, left, right);
-        }
+        // Full width rotates rows; within margins each row segment is copied once
+        screenBuffer.shiftRowsInRect(windowStartRow, left, windowEndRow, right, -n, eraseAttributes());
 
         logger.debug("Innerhalb des Bereichs Zeilen {}..{}, Spalten {}..{} um {} Zeilen nach unten gescrollt",
                 windowStartRow + 1, windowEndRow + 1, left + 1, right + 1, n);
@@ -131,16 +100,8 @@ public class ScrollingRegionHandler {
         int left = getCurrentLeftMargin();
         int right = Math.min(getCurrentRightMargin(), columns - 1);
 
-        // Shift up: top to bottom; deep-copy cells to prevent aliasing
-        for (int row = windowStartRow; row < windowEndRow; row++) {
-            for (int col = left; col <= right; col++) {
-                Cell src = screenBuffer.getCell(row + 1, col);
-                screenBuffer.setCell(row, col, cloneCell(src));
-            }
-        }
-
-        // Clear bottom line within margins
-        clearLine(windowEndRow, left, right);
+        // Full width rotates rows (and feeds the scrollback); within margins segments are copied
+        screenBuffer.shiftRowsInRect(windowStartRow, left, windowEndRow, right, 1, eraseAttributes());
 
         logger.debug("Innerhalb des Bereichs Zeilen {}..{}, Spalten {}..{} nach oben gescrollt",
                 windowStartRow + 1, windowEndRow + 1, left + 1, right + 1);
@@ -167,16 +128,6 @@ public class ScrollingRegionHandler {
         return startRow >= 0 && endRow < totalRows && startRow <= endRow;
     }
 
-    private int parseOrDefault(String s, int def) {
-        if (s == null || s.isEmpty()) return def;
-        try {
-            int v = Integer.parseInt(s);
-            return (v == 0) ? def : v;
-        } catch (NumberFormatException e) {
-            return def;
-        }
-    }
-
     private int getCurrentLeftMargin() {
         if (leftRightMarginModeHandler != null && leftRightMarginModeHandler.isLeftRightMarginModeEnabled()) {
             return Math.max(0, leftRightMarginSequenceHandler.getLeftMargin());
@@ -192,15 +143,8 @@ public class ScrollingRegionHandler {
         return max;
     }
 
-    private void clearLine(int row, int left, int right) {
-        String style = (textFormater != null) ? textFormater.getEraseFillStyle() : StyleUtils.getDefaultStyle();
-        for (int col = left; col <= right; col++) {
-            screenBuffer.setCell(row, col, new Cell(" ", style));
-        }
+    private int eraseAttributes() {
+        return (textFormater != null) ? textFormater.getEraseAttributes() : Attributes.DEFAULT;
     }
 
-    private Cell cloneCell(Cell c) {
-        // Defensive copy; assumes Cell is immutable-like (char + style string)
-        return new Cell(c.character(), c.style());
-    }
 }
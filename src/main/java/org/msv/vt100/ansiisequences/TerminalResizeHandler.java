@@ -0,0 +1,64 @@
+package org.msv.vt100.ansiisequences;
+
+import org.msv.vt100.core.Cursor;
+import org.msv.vt100.core.ScreenBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Changes the terminal geometry: explicit resizes and DECCOLM (CSI ?3h / ?3l, 132 / 80 columns).
+ * Semantics:
+ * - {@link #resize(int, int)} keeps the screen content that still fits, clamps the cursor and resets
+ *   the scrolling region and left/right margins to the new full screen.
+ * - DECCOLM additionally clears the screen and homes the cursor, as on a VT100.
+ * Notes:
+ * - Must run on the emulator thread (it writes the {@link ScreenBuffer}).
+ * - The new size reaches the host through the commit that follows (see ScreenChangeEvent#isGeometryChanged()).
+ */
+public class TerminalResizeHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TerminalResizeHandler.class);
+
+    public static final int NORMAL_COLUMNS = 80;
+    public static final int WIDE_COLUMNS = 132;
+
+    private final ScreenBuffer screenBuffer;
+    private final Cursor cursor;
+    private final ScrollingRegionHandler scrollingRegionHandler;
+    private final LeftRightMarginSequenceHandler leftRightMarginSequenceHandler;
+    private final ErasingSequences erasingSequences;
+
+    public TerminalResizeHandler(ScreenBuffer screenBuffer,
+                                 Cursor cursor,
+                                 ScrollingRegionHandler scrollingRegionHandler,
+                                 LeftRightMarginSequenceHandler leftRightMarginSequenceHandler,
+                                 ErasingSequences erasingSequences) {
+        this.screenBuffer = screenBuffer;
+        this.cursor = cursor;
+        this.scrollingRegionHandler = scrollingRegionHandler;
+        this.leftRightMarginSequenceHandler = leftRightMarginSequenceHandler;
+        this.erasingSequences = erasingSequences;
+    }
+
+    /** Resizes screen, cursor and margins to {@code rows} x {@code columns}. */
+    public void resize(int rows, int columns) {
+        if (rows <= 0 || columns <= 0) {
+            logger.warn("Ungültige Bildschirmgröße ignoriert: {}x{}", rows, columns);
+            return;
+        }
+        if (rows == screenBuffer.getRows() && columns == screenBuffer.getColumns()) return;
+        screenBuffer.resize(rows, columns);
+        cursor.resize(rows, columns);
+        scrollingRegionHandler.resetToFullScreen();
+        leftRightMarginSequenceHandler.resetMargins();
+        logger.info("Bildschirmgröße auf {} Zeilen x {} Spalten geändert", rows, columns);
+    }
+
+    /** DECCOLM: 132 columns if {@code wide}, else 80; clears the screen and homes the cursor. */
+    public void setColumnMode(boolean wide) {
+        resize(screenBuffer.getRows(), wide ? WIDE_COLUMNS : NORMAL_COLUMNS);
+        erasingSequences.clearEntireScreen();
+        cursor.setPosition(0, 0);
+        logger.debug("DECCOLM: {} Spalten.", screenBuffer.getColumns());
+    }
+}
@@ -3,120 +3,43 @@ package org.msv.vt100.ansiisequences;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
-
+import org.msv.vt100.core.Attributes;
+
+/**
+ * Holds the SGR (Select Graphic Rendition) state as a compact attribute word (see {@link Attributes}).
+ * Notes:
+ * - The word is updated in place by SGR; writers read it with {@link #getCurrentAttributes()}.
+ * - Reverse video and conceal are kept as flags; the renderer resolves the effective colors.
+ */
 public class TextFormater {
 
     // Logger instance for debugging
     private static final Logger logger = LoggerFactory.getLogger(TextFormater.class);
-    private static final String REVERSE_SWAP_BG_FALLBACK = "black";
-
-    // Enumeration for possible text formatting modes
-    public enum TextFormatMode {
-        NORMAL,
-        UNDERLINE,
-        REVERSE_VIDEO,
-        BLINK,
-        BOLD,
-        CONCEAL
-    }
 
-    // Active formatting modes
-    private final EnumSet<TextFormatMode> activeFormats;
-
-    // Current canonical style string consumed by the renderer
-    private String currentStyle;
+    // Current SGR state (colors + flags, no line attributes)
+    private int currentAttributes = Attributes.DEFAULT;
 
     // Reference to LineAttributeHandler (to manage line-specific attributes)
     private final LineAttributeHandler lineAttributeHandler;
 
-    // Current color state (canonical names used by the renderer)
-    // Keep null to represent "default" (so that 39/49 can restore default)
-    private String currentForeground; // e.g., "white"
-    private String currentBackground; // e.g., "transparent"
-
-    // Default colors (VT-style: typically foreground=white, background=transparent/black depending on theme)
-    private static final String DEFAULT_FG = "white";
-    private static final String DEFAULT_BG = "transparent";
-
-    // Color maps for SGR 30–37 / 90–97 and 40–47 / 100–107
-    private static final Map<Integer, String> FG_COLOR_MAP = new HashMap<>();
-    private static final Map<Integer, String> BG_COLOR_MAP = new HashMap<>();
-
-    static {
-        // Normal intensity foreground (30–37)
-        FG_COLOR_MAP.put(30, "black");
-        FG_COLOR_MAP.put(31, "red");
-        FG_COLOR_MAP.put(32, "green");
-        FG_COLOR_MAP.put(33, "yellow");
-        FG_COLOR_MAP.put(34, "blue");
-        FG_COLOR_MAP.put(35, "magenta");
-        FG_COLOR_MAP.put(36, "cyan");
-        FG_COLOR_MAP.put(37, "white");
-
-        // Bright foreground (90–97)
-        FG_COLOR_MAP.put(90, "bright-black");
-        FG_COLOR_MAP.put(91, "bright-red");
-        FG_COLOR_MAP.put(92, "bright-green");
-        FG_COLOR_MAP.put(93, "bright-yellow");
-        FG_COLOR_MAP.put(94, "bright-blue");
-        FG_COLOR_MAP.put(95, "bright-magenta");
-        FG_COLOR_MAP.put(96, "bright-cyan");
-        FG_COLOR_MAP.put(97, "bright-white");
-
-        // Normal background (40–47)
-        BG_COLOR_MAP.put(40, "black");
-        BG_COLOR_MAP.put(41, "red");
-        BG_COLOR_MAP.put(42, "green");
-        BG_COLOR_MAP.put(43, "yellow");
-        BG_COLOR_MAP.put(44, "blue");
-        BG_COLOR_MAP.put(45, "magenta");
-        BG_COLOR_MAP.put(46, "cyan");
-        BG_COLOR_MAP.put(47, "white");
-
-        // Bright background (100–107)
-        BG_COLOR_MAP.put(100, "bright-black");
-        BG_COLOR_MAP.put(101, "bright-red");
-        BG_COLOR_MAP.put(102, "bright-green");
-        BG_COLOR_MAP.put(103, "bright-yellow");
-        BG_COLOR_MAP.put(104, "bright-blue");
-        BG_COLOR_MAP.put(105, "bright-magenta");
-        BG_COLOR_MAP.put(106, "bright-cyan");
-        BG_COLOR_MAP.put(107, "bright-white");
-    }
-
     public TextFormater(LineAttributeHandler lineAttributeHandler) {
         this.lineAttributeHandler = lineAttributeHandler;
-        this.activeFormats = EnumSet.noneOf(TextFormatMode.class);
         // Initialize defaults
         resetAllAttributes();
     }
 
     /**
-     * Processes the SGR (Select Graphic Rendition) sequence and updates active formatting modes.
-     * This method expects the sequence starting after ESC, e.g. "[1;4m".
+     * Processes the SGR (Select Graphic Rendition) parameters and updates active formatting modes.
+     * Parameters are pre-parsed by the VT parser; an empty list equals a full reset (CSI m).
      */
-    public void handleSgrSequence(String sequence) {
-        // Remove '[' and trailing 'm'
-        String params = sequence.replace("[", "").replace("m", "");
-        String[] paramArray = params.split(";");
-
-        if (paramArray.length == 0 || paramArray[0].isEmpty()) {
-            // Empty parameter equals full reset
+    public void handleSgr(int[] params, int paramCount) {
+        if (paramCount == 0) {
             resetAllAttributes();
             return;
         }
 
-        for (String p : paramArray) {
-            int code;
-            try {
-                code = Integer.parseInt(p);
-            } catch (NumberFormatException e) {
-                logger.debug("Nichtnumerischen SGR-Parameter ignoriert: {}", p);
-                continue;
-            }
+        for (int i = 0; i < paramCount; i++) {
+            int code = params[i];
 
             // Apply parameters in the order received (VT semantics)
             if (code == 0) {
@@ -130,20 +53,13 @@ public class TextFormater {
             // Not implemented attributes are ignored, but logged at debug to avoid noise
             logger.debug("Unbekannter/nicht unterstützter SGR-Code: {}", code);
         }
-
-        updateCurrentStyle();
     }
 
     /**
      * Resets all text and line attributes (CSI 0 m).
      */
     public void resetAllAttributes() {
-        activeFormats.clear();
-        activeFormats.add(TextFormatMode.NORMAL);
-        currentForeground = DEFAULT_FG;
-        currentBackground = DEFAULT_BG;
-
-        updateCurrentStyle();
+        currentAttributes = Attributes.DEFAULT;
 
         // Reset line attributes as well
         lineAttributeHandler.resetAllLineAttributes();
@@ -208,11 +124,11 @@ public class TextFormater {
                 yield true;
             }
             case 39 -> {
-                currentForeground = DEFAULT_FG;
+                currentAttributes = Attributes.withForeground(currentAttributes, Attributes.COLOR_DEFAULT);
                 yield true;
             }
             case 49 -> {
-                currentBackground = DEFAULT_BG;
+                currentAttributes = Attributes.withBackground(currentAttributes, Attributes.COLOR_DEFAULT);
                 yield true;
             }
             default -> false;
@@ -225,12 +141,20 @@ public class TextFormater {
      * Note: 38/48 with extended color are not implemented here.
      */
     private boolean applyColor(int code) {
-        if (FG_COLOR_MAP.containsKey(code)) {
-            currentForeground = FG_COLOR_MAP.get(code);
+        if (code >= 30 && code <= 37) {
+            currentAttributes = Attributes.withForeground(currentAttributes, Attributes.COLOR_BLACK + (code - 30));
             return true;
         }
-        if (BG_COLOR_MAP.containsKey(code)) {
-            currentBackground = BG_COLOR_MAP.get(code);
+        if (code >= 90 && code <= 97) {
+            currentAttributes = Attributes.withForeground(currentAttributes, Attributes.COLOR_BRIGHT_BLACK + (code - 90));
+            return true;
+        }
+        if (code >= 40 && code <= 47) {
+            currentAttributes = Attributes.withBackground(currentAttributes, Attributes.COLOR_BLACK + (code - 40));
+            return true;
+        }
+        if (code >= 100 && code <= 107) {
+            currentAttributes = Attributes.withBackground(currentAttributes, Attributes.COLOR_BRIGHT_BLACK + (code - 100));
             return true;
         }
         return false;
@@ -239,127 +163,68 @@ public class TextFormater {
     // ----- Attribute toggles -----
 
     public void enableReverseVideo() {
-        activeFormats.add(TextFormatMode.REVERSE_VIDEO);
+        currentAttributes |= Attributes.REVERSE;
         logger.debug("Reverse Video aktiviert.");
     }
 
     public void disableReverseVideo() {
-        activeFormats.remove(TextFormatMode.REVERSE_VIDEO);
+        currentAttributes &= ~Attributes.REVERSE;
         logger.debug("Reverse Video deaktiviert.");
     }
 
     public void enableUnderline() {
-        activeFormats.add(TextFormatMode.UNDERLINE);
+        currentAttributes |= Attributes.UNDERLINE;
         logger.debug("Unterstreichung aktiviert.");
     }
 
     public void disableUnderline() {
-        activeFormats.remove(TextFormatMode.UNDERLINE);
+        currentAttributes &= ~Attributes.UNDERLINE;
         logger.debug("Unterstreichung deaktiviert.");
     }
 
     public void enableBlink() {
-        activeFormats.add(TextFormatMode.BLINK);
+        currentAttributes |= Attributes.BLINK;
         logger.debug("Blinken aktiviert.");
     }
 
     public void disableBlink() {
-        activeFormats.remove(TextFormatMode.BLINK);
+        currentAttributes &= ~Attributes.BLINK;
         logger.debug("Blinken deaktiviert.");
     }
 
     public void enableBold() {
-        activeFormats.add(TextFormatMode.BOLD);
+        currentAttributes |= Attributes.BOLD;
         logger.debug("Fett aktiviert.");
     }
 
     public void disableBold() {
-        activeFormats.remove(TextFormatMode.BOLD);
+        currentAttributes &= ~Attributes.BOLD;
         logger.debug("Fett deaktiviert.");
     }
 
     public void enableConceal() {
-        activeFormats.add(TextFormatMode.CONCEAL);
+        currentAttributes |= Attributes.CONCEAL;
         logger.debug("Verbergen aktiviert.");
     }
 
     public void disableConceal() {
-        activeFormats.remove(TextFormatMode.CONCEAL);
+        currentAttributes &= ~Attributes.CONCEAL;
         logger.debug("Verbergen deaktiviert.");
     }
 
     /**
-     * Rebuilds the canonical style string from state.
-     * This style string is later interpreted by the renderer.
+     * Returns the current attribute word (colors and SGR flags).
      */
-    private void updateCurrentStyle() {
-        // Resolve current colors (defaults applied)
-        String effFg = currentForeground != null ? currentForeground : DEFAULT_FG;
-        String effBg = currentBackground != null ? currentBackground : DEFAULT_BG;
-
-        String fg = effFg;
-        String bg = effBg;
-
-        // Reverse-video means swapping colors. If background is transparent,
-        // we fallback to a solid color (black) for the new foreground to keep text visible.
-        if (activeFormats.contains(TextFormatMode.REVERSE_VIDEO)) {
-            // Use a non-transparent surrogate for foreground after swap
-            // text color comes from (effective) background
-            // background comes from previous foreground
-
-            fg = "transparent".equalsIgnoreCase(effBg) ? REVERSE_SWAP_BG_FALLBACK : effBg;
-            bg = effFg;
-        }
-
-        // Conceal overrides foreground regardless of reverse-video
-        if (activeFormats.contains(TextFormatMode.CONCEAL)) {
-            fg = "transparent";
-        }
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("fill: ").append(fg).append("; ");
-        sb.append("background: ").append(bg).append("; ");
-        sb.append("underline: ").append(activeFormats.contains(TextFormatMode.UNDERLINE) ? "true" : "false").append("; ");
-        sb.append("font-weight: ").append(activeFormats.contains(TextFormatMode.BOLD) ? "bold" : "normal").append("; ");
-        if (activeFormats.contains(TextFormatMode.BLINK)) {
-            sb.append("blink: true; ");
-        }
-
-        currentStyle = sb.toString().trim();
+    public int getCurrentAttributes() {
+        return currentAttributes;
     }
 
     /**
-     * Returns the current canonical style string.
+     * Attributes for "background fill" when erasing, inserting or scrolling:
+     * current colors with reverse video and conceal, but no underline, bold or blink.
      */
-    public String getCurrentStyle() {
-        return currentStyle;
-    }
-
-    public String getEffectiveForeground() {
-        String effFg = currentForeground != null ? currentForeground : DEFAULT_FG;
-        String effBg = currentBackground != null ? currentBackground : DEFAULT_BG;
-        if (activeFormats.contains(TextFormatMode.REVERSE_VIDEO)) {
-            effFg = "transparent".equalsIgnoreCase(effBg) ? REVERSE_SWAP_BG_FALLBACK : effBg;
-        }
-        if (activeFormats.contains(TextFormatMode.CONCEAL)) {
-            effFg = "transparent";
-        }
-        return effFg;
-    }
-
-    public String getEffectiveBackground() {
-        String effFg = currentForeground != null ? currentForeground : DEFAULT_FG;
-        String effBg = currentBackground != null ? currentBackground : DEFAULT_BG;
-        if (activeFormats.contains(TextFormatMode.REVERSE_VIDEO)) {
-            effBg = effFg;
-        }
-        return effBg;
-    }
-
-    /** Стиль для «заливки фоном» при стирании/вставке/прокрутке */
-    public String getEraseFillStyle() {
-        String bg = getEffectiveBackground();
-        return "fill: " + getEffectiveForeground() + "; background: " + bg + "; underline: false; font-weight: normal;";
+    public int getEraseAttributes() {
+        return currentAttributes & ~(Attributes.BOLD | Attributes.UNDERLINE | Attributes.BLINK);
     }
 
 }
@@ -0,0 +1,89 @@
+package org.msv.vt100.core;
+
+/**
+ * Compact per-cell attribute word (SGR state plus line attributes) packed into an int.
+ * Layout:
+ * - bits 0..7   foreground color (0 = default, 1..8 = black..white, 9..16 = bright black..bright white)
+ * - bits 8..15  background color (same encoding; default background is transparent)
+ * - bits 16..20 bold, underline, blink, reverse video, conceal
+ * - bits 21..23 line attributes: double width, double height top, double height bottom
+ * Semantics:
+ * - Colors are stored as selected by SGR; reverse video and conceal are resolved by the renderer.
+ * - {@link #DEFAULT} (0) is "default colors, no flags".
+ * Notes:
+ * - Attribute words are plain values; equal attributes always yield equal ints.
+ */
+public final class Attributes {
+
+    public static final int DEFAULT = 0;
+
+    public static final int COLOR_DEFAULT = 0;
+    public static final int COLOR_BLACK = 1;
+    public static final int COLOR_RED = 2;
+    public static final int COLOR_GREEN = 3;
+    public static final int COLOR_YELLOW = 4;
+    public static final int COLOR_BLUE = 5;
+    public static final int COLOR_MAGENTA = 6;
+    public static final int COLOR_CYAN = 7;
+    public static final int COLOR_WHITE = 8;
+    /** Bright variants follow the normal ones: COLOR_BRIGHT_BLACK + (COLOR_x - COLOR_BLACK). */
+    public static final int COLOR_BRIGHT_BLACK = 9;
+    public static final int COLOR_COUNT = 17;
+
+    public static final int BOLD = 1 << 16;
+    public static final int UNDERLINE = 1 << 17;
+    public static final int BLINK = 1 << 18;
+    public static final int REVERSE = 1 << 19;
+    public static final int CONCEAL = 1 << 20;
+
+    public static final int LINE_DOUBLE_WIDTH = 1 << 21;
+    public static final int LINE_DOUBLE_HEIGHT_TOP = 1 << 22;
+    public static final int LINE_DOUBLE_HEIGHT_BOTTOM = 1 << 23;
+    public static final int LINE_MASK = LINE_DOUBLE_WIDTH | LINE_DOUBLE_HEIGHT_TOP | LINE_DOUBLE_HEIGHT_BOTTOM;
+
+    private static final int FG_SHIFT = 0;
+    private static final int BG_SHIFT = 8;
+    private static final int COLOR_MASK = 0xFF;
+
+    private Attributes() {
+    }
+
+    public static int of(int foreground, int background, int flags) {
+        return withBackground(withForeground(flags, foreground), background);
+    }
+
+    public static int foreground(int attr) {
+        return (attr >>> FG_SHIFT) & COLOR_MASK;
+    }
+
+    public static int background(int attr) {
+        return (attr >>> BG_SHIFT) & COLOR_MASK;
+    }
+
+    public static int withForeground(int attr, int color) {
+        return (attr & ~(COLOR_MASK << FG_SHIFT)) | ((color & COLOR_MASK) << FG_SHIFT);
+    }
+
+    public static int withBackground(int attr, int color) {
+        return (attr & ~(COLOR_MASK << BG_SHIFT)) | ((color & COLOR_MASK) << BG_SHIFT);
+    }
+
+    public static boolean has(int attr, int flag) {
+        return (attr & flag) != 0;
+    }
+
+    /** Returns a readable form for logs, e.g. "fg=2 bg=0 bold reverse". */
+    public static String describe(int attr) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("fg=").append(foreground(attr)).append(" bg=").append(background(attr));
+        if (has(attr, BOLD)) sb.append(" bold");
+        if (has(attr, UNDERLINE)) sb.append(" underline");
+        if (has(attr, BLINK)) sb.append(" blink");
+        if (has(attr, REVERSE)) sb.append(" reverse");
+        if (has(attr, CONCEAL)) sb.append(" conceal");
+        if (has(attr, LINE_DOUBLE_WIDTH)) sb.append(" double-width");
+        if (has(attr, LINE_DOUBLE_HEIGHT_TOP)) sb.append(" double-height-top");
+        if (has(attr, LINE_DOUBLE_HEIGHT_BOTTOM)) sb.append(" double-height-bottom");
+        return sb.toString();
+    }
+}
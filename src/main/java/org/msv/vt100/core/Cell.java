@@ -1,4 +1,52 @@
 package org.msv.vt100.core;
 
-public record Cell(String character, String style) {
-}
\ No newline at end of file
+/**
+ * One screen cell: the glyph code point and its attribute word (see {@link Attributes}).
+ * Notes:
+ * - ScreenBuffer stores cells packed into a long (attr in the high 32 bits, code point in the low 32);
+ *   Cell is the unpacked view handed out by getCell/getVisibleCell.
+ */
+public record Cell(int codePoint, int attr) {
+
+    public static final int BLANK = ' ';
+
+    // Shared glyph strings for ASCII, so character() does not allocate for plain text.
+    private static final String[] ASCII_GLYPHS = new String[0x80];
+    static {
+        for (char c = 0; c < ASCII_GLYPHS.length; c++) {
+            ASCII_GLYPHS[c] = String.valueOf(c).intern();
+        }
+    }
+
+    /** The glyph as a String (one code point). */
+    public String character() {
+        return glyph(codePoint);
+    }
+
+    public static String glyph(int codePoint) {
+        if (codePoint >= 0 && codePoint < ASCII_GLYPHS.length) {
+            return ASCII_GLYPHS[codePoint];
+        }
+        return Character.toString(codePoint);
+    }
+
+    public static long pack(int codePoint, int attr) {
+        return ((long) attr << 32) | (codePoint & 0xFFFF_FFFFL);
+    }
+
+    public static int codePointOf(long packed) {
+        return (int) packed;
+    }
+
+    public static int attrOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    public static Cell unpack(long packed) {
+        return new Cell(codePointOf(packed), attrOf(packed));
+    }
+
+    public long packed() {
+        return pack(codePoint, attr);
+    }
+}
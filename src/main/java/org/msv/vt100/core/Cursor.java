@@ -9,8 +9,8 @@ public class Cursor {
     private volatile int row;
     private volatile int column;
 
-    private final int maxRows;
-    private final int maxColumns;
+    private volatile int maxRows;
+    private volatile int maxColumns;
 
     private final ReentrantLock lock = new ReentrantLock();
     private final Condition positionChanged = lock.newCondition();
@@ -78,6 +78,26 @@ public class Cursor {
         }
     }
 
+    /** Changes the screen size the cursor is confined to; the position is clamped into it. */
+    public void resize(int rows, int columns) {
+        if (rows <= 0 || columns <= 0)
+            throw new IllegalArgumentException("maxRows/maxColumns must be > 0");
+        lock.lock();
+        try {
+            maxRows = rows;
+            maxColumns = columns;
+            int nr = clamp(row, rows - 1);
+            int nc = clamp(column, columns - 1);
+            if (nr != row || nc != column) {
+                row = nr;
+                column = nc;
+                positionChanged.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public String getCursorPosition() {
         int r = this.row;     // volatile read
         int c = this.column;  // volatile read
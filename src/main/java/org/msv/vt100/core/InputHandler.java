@@ -2,6 +2,7 @@ package org.msv.vt100.core;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.input.KeyCode;
@@ -113,18 +114,21 @@ public class InputHandler {
         int r = cursor.getRow();
         int c = cursor.getColumn();
 
-        Cell current = screenBuffer.getCell(r, c);
-        String originalStyle = current.style();
-
-        String highlightStyle = "fill: black; background: green;";
-        screenBuffer.setCell(r, c, new Cell(current.character(), highlightStyle));
-
-        Timeline restore = new Timeline(new KeyFrame(
-                Duration.seconds(1),
-                e -> screenBuffer.setCell(r, c, new Cell(current.character(), originalStyle))
-        ));
-        restore.setCycleCount(1);
-        restore.play();
+        // The screen buffer belongs to the emulator thread; the timeline only schedules the restore.
+        terminalApp.runOnEmulator(() -> {
+            Cell current = screenBuffer.getCell(r, c);
+            int highlight = Attributes.of(Attributes.COLOR_BLACK, Attributes.COLOR_GREEN, 0);
+            screenBuffer.setCell(r, c, new Cell(current.codePoint(), highlight));
+
+            Platform.runLater(() -> {
+                Timeline restore = new Timeline(new KeyFrame(
+                        Duration.seconds(1),
+                        e -> terminalApp.runOnEmulator(() -> screenBuffer.setCell(r, c, current))
+                ));
+                restore.setCycleCount(1);
+                restore.play();
+            });
+        });
     }
 
     private String getEscapeSequence(KeyCode code) {
@@ -166,6 +170,7 @@ public class InputHandler {
         }
         try {
             manager.send(data);
+            terminalApp.onUserInput();
             logger.debug("An SSH gesendet ({} Zeichen).", data.length());
         } catch (IOException e) {
             logger.error("Fehler beim Senden an SSH: {}", e.getMessage(), e);
@@ -9,33 +9,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
-public class InputProcessor {
+public final class InputProcessor implements VtParser.Performer {
 
     private static final Logger log = LoggerFactory.getLogger(InputProcessor.class);
 
 
-    private static final char ESC = '\u001B';
-    private static final char ST  = '\\';
     private static final char CR  = '\r';
     private static final char LF  = '\n';
     private static final char BS  = '\b';
-    private static final char NUL = '\u0000';
-    private static final char SUB = '\u001A';
 
 
-    private static final int MAX_ESC_LEN = 4096;
     private static final int MAX_DCS_LEN = 16384;
 
     private final EscapeSequenceHandler escapeSequenceHandler;
     private final CursorController cursorController;
-    private final NrcsHandler nrcsHandler;
-    private final CharsetSwitchHandler charsetSwitchHandler;
     private final Runnable backspaceHandler;
-    private enum Mode { TEXT, ESCAPE, DCS }
-    private Mode mode = Mode.TEXT;
+    private final VtParser parser;
 
-    private final StringBuilder escBuf = new StringBuilder(256);
-    private final StringBuilder dcsBuf = new StringBuilder(1024);
+    private int dcsLength;
+    private boolean dcsOverflow;
 
     public InputProcessor(EscapeSequenceHandler escapeSequenceHandler,
                           CursorController cursorController,
@@ -45,150 +37,82 @@ public class InputProcessor {
                           Runnable backspaceHandler) {
         this.escapeSequenceHandler = escapeSequenceHandler;
         this.cursorController = cursorController;
-        this.nrcsHandler = nrcsHandler;
-        this.charsetSwitchHandler = charsetSwitchHandler;
         this.backspaceHandler = backspaceHandler;
+        this.parser = new VtParser(this);
         this.cursorController.attachTextPipeline(charsetSwitchHandler, nrcsHandler, textFormater);
     }
 
     public void processInput(char[] inputChars) {
-        for (int i = 0; i < inputChars.length; i++) {
-            char ch = inputChars[i];
-
-            switch (mode) {
-                case DCS -> {
-                    if (ch == ESC) {
-                        char next = (i + 1 < inputChars.length) ? inputChars[i + 1] : 0;
-                        if (next == ST) {
-
-                            dcsBuf.append(ESC).append(ST);
-                            handleDcsSequence(dcsBuf);
-                            dcsBuf.setLength(0);
-                            mode = Mode.TEXT;
-                            i++;
-                        } else {
-
-                            handleDcsSequence(dcsBuf);
-                            dcsBuf.setLength(0);
-                            mode = Mode.ESCAPE;
-                            escBuf.setLength(0);
-                            escBuf.append(ESC);
-                        }
-                    } else {
-                        dcsBuf.append(ch);
-                        if (dcsBuf.length() > MAX_DCS_LEN) {
-                            log.warn("DCS-Nutzlast zu lang (>{}) – abgeschnitten und ignoriert", MAX_DCS_LEN);
-                            dcsBuf.setLength(0);
-                            mode = Mode.TEXT;
-                        }
-                    }
-                }
-
-                case ESCAPE -> {
-                    escBuf.append(ch);
-                    if (escapeSequenceHandler.isEndOfSequence(escBuf)) {
-
-                        String seq = escBuf.toString();
-                        try {
-                            escapeSequenceHandler.processEscapeSequence(seq);
-                        } catch (Exception ex) {
-                            log.warn("Verarbeitung der ESC-Sequenz fehlgeschlagen: '{}': {}", printable(seq), ex.toString());
-                        } finally {
-                            escBuf.setLength(0);
-                            mode = Mode.TEXT;
-                        }
-                    } else if (startsDcs(escBuf)) {
-
-                        mode = Mode.DCS;
-                        dcsBuf.setLength(0);
-                        dcsBuf.append(escBuf);
-                        escBuf.setLength(0);
-                    } else if (escBuf.length() > MAX_ESC_LEN) {
-
-                        log.warn("ESC-Sequenz zu lang (>{}) – Puffer verworfen", MAX_ESC_LEN);
-                        escBuf.setLength(0);
-                        mode = Mode.TEXT;
-                    }
-                }
-
-                case TEXT -> {
-                    if (ch == ESC) {
-                        mode = Mode.ESCAPE;
-                        escBuf.setLength(0);
-                        escBuf.append(ch);
-                        continue;
-                    }
-                    if (ch == CR) {
-                        cursorController.moveCursorToLineStart();
-                        continue;
-                    }
-                    if (ch == LF) {
-                        cursorController.moveCursorDown();
-                        continue;
-                    }
-                    if (ch == BS) {
-                        backspaceHandler.run();
-                        continue;
-                    }
-                    if (ch == NUL || ch == SUB) {
-                        continue;
-                    }
-
-                    if (Character.isHighSurrogate(ch) && i + 1 < inputChars.length) {
-                        char ch2 = inputChars[i + 1];
-                        if (Character.isLowSurrogate(ch2)) {
-                            int codePoint = Character.toCodePoint(ch, ch2);
-                            writeCodePoint(codePoint);
-                            i++;
-                            continue;
-                        }
-                    }
-
-                    writeCodePoint(ch);
-                }
-            }
-        }
+        processInput(inputChars, 0, inputChars.length);
     }
 
-    private boolean startsDcs(CharSequence buf) {
-        if (buf.length() < 2) return false;
-        return buf.charAt(0) == ESC && buf.charAt(1) == 'P';
+    public void processInput(char[] buf, int off, int len) {
+        parser.process(buf, off, len);
     }
 
+    // ---- VtParser.Performer ----
+
+    @Override
+    public void print(char[] buf, int off, int len) {
+        cursorController.writeRun(buf, off, len);
+    }
 
-    private void handleDcsSequence(StringBuilder dcs) {
-        if (dcs.isEmpty()) return;
-        final int previewLen = Math.min(32, dcs.length());
-        String head = printable(dcs.substring(0, previewLen));
-        log.debug("DCS empfangen (Länge={}): Kopf='{}' ...", dcs.length(), head);
+    @Override
+    public void execute(char control) {
+        switch (control) {
+            case CR -> cursorController.moveCursorToLineStart();
+            case LF -> cursorController.moveCursorDown();
+            case BS -> backspaceHandler.run();
+            default -> { /* other C0 controls are ignored */ }
+        }
     }
 
-    private void writeCodePoint(int codePoint) {
-        String raw = new String(Character.toChars(codePoint));
+    @Override
+    public void escDispatch(char intermediate, char finalChar) {
+        try {
+            escapeSequenceHandler.onEsc(intermediate, finalChar);
+        } catch (Exception ex) {
+            log.warn("Verarbeitung der ESC-Sequenz fehlgeschlagen: '{}{}': {}",
+                    intermediate == 0 ? "" : String.valueOf(intermediate), finalChar, ex.toString());
+        }
+    }
 
-        String afterCharset = charsetSwitchHandler.processText(raw);
+    @Override
+    public void csiDispatch(char privateMarker, char intermediate, int[] params, int paramCount, char finalChar) {
+        try {
+            escapeSequenceHandler.onCsi(privateMarker, intermediate, params, paramCount, finalChar);
+        } catch (Exception ex) {
+            log.warn("Verarbeitung der CSI-Sequenz fehlgeschlagen (Final '{}'): {}", finalChar, ex.toString());
+        }
+    }
 
-        String afterNrcs = nrcsHandler.processText(afterCharset);
+    @Override
+    public void oscDispatch(CharSequence payload) {
+        if (log.isDebugEnabled()) {
+            log.debug("OSC empfangen und ignoriert (Länge={})", payload.length());
+        }
+    }
 
-        for (int off = 0; off < afterNrcs.length(); ) {
-            int cp = afterNrcs.codePointAt(off);
-            String ch = new String(Character.toChars(cp));
-            cursorController.handleCharacter(ch);
-            off += Character.charCount(cp);
+    @Override
+    public void dcsHook(char privateMarker, char intermediate, int[] params, int paramCount, char finalChar) {
+        dcsLength = 0;
+        dcsOverflow = false;
+        if (log.isDebugEnabled()) {
+            log.debug("DCS empfangen: Final='{}', Zwischenzeichen='{}', Parameter={}",
+                    finalChar, intermediate == 0 ? "" : String.valueOf(intermediate), paramCount);
         }
     }
 
-    private String printable(String s) {
-        if (s == null) return "null";
-        StringBuilder out = new StringBuilder(s.length());
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c < 0x20 || c == 0x7F) {
-                out.append(String.format("\\x%02X", (int) c));
-            } else {
-                out.append(c);
-            }
+    @Override
+    public void dcsPut(char ch) {
+        if (++dcsLength > MAX_DCS_LEN && !dcsOverflow) {
+            dcsOverflow = true;
+            log.warn("DCS-Nutzlast zu lang (>{}) – Rest wird ignoriert", MAX_DCS_LEN);
         }
-        return out.toString();
+    }
+
+    @Override
+    public void dcsUnhook() {
+        log.debug("DCS beendet (Länge={})", dcsLength);
     }
 }
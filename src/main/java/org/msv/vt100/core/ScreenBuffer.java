@@ -1,34 +1,112 @@
 package org.msv.vt100.core;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-
+/**
+ * Screen memory with a back buffer (written by the emulator) and a committed, visible state.
+ * Model:
+ * - Each page stores its back buffer as one flat {@code long[]} of packed cells
+ *   (see {@link Cell#pack(int, int)}): attribute word in the high 32 bits, code point in the low 32.
+ *   Storage rows are {@code stride} cells apart; stride and storage rows are the largest geometry
+ *   used so far, so {@link #resize(int, int)} back to a smaller or known size reuses the arrays.
+ * - Pages are created on first use and start out sharing one blank template (cells, committed rows
+ *   and row texts); a page gets its own cell storage on the first write (copy-on-write).
+ * - A per-page row map translates screen rows to storage rows, so full-width scrolling
+ *   ({@link #scrollRows(int, int, int, int)}) rotates row indices instead of moving cells.
+ * - Lines scrolled off the top of the primary page (page 1) by a band starting at row 0 are appended
+ *   to the {@link ScrollbackBuffer}; each commit records how many history lines it includes.
+ * - {@link #commit(int, int)} publishes dirty rows as fresh {@code long[]} row arrays inside an
+ *   immutable {@link ScreenSnapshot}; unchanged rows are shared between versions. A snapshot carries
+ *   a {@link ScrollHint} when the rows were only shifted since the previous version.
+ * - Each committed row also gets its text as a String, built only when the row was dirty;
+ *   automation text queries reuse these row strings instead of walking all cells.
+ * - Damage is tracked as a column span per row (first..last changed column); the snapshot carries
+ *   the spans relative to the previous version so the renderer can repaint just those cells.
+ * - Every published version is announced to the {@link ScreenChangeListener}s with one reused
+ *   {@link ScreenChangeEvent}, so nothing has to poll for changes.
+ * Notes:
+ * - Only the emulator thread writes, resizes and commits. Other threads read through {@link #snapshot()}
+ *   (or the getVisible* shortcuts, which read the latest snapshot on every call) and take the
+ *   geometry from the snapshot rather than from {@link #getRows()}/{@link #getColumns()}.
+ * - {@link #getCell(int, int)} and {@link #getVisibleCell(int, int)} are unpacked views for callers
+ *   that want a {@link Cell}; hot paths use the packed accessors.
+ */
 public class ScreenBuffer {
 
+    private static final Logger logger = LoggerFactory.getLogger(ScreenBuffer.class);
+
+    private static final long BLANK = Cell.pack(Cell.BLANK, Attributes.DEFAULT);
+
+    public static final int DEFAULT_SCROLLBACK_LINES = 10_000;
+
+    /**
+     * Damage hint: the rows {@code top..bottom} (0-based, inclusive) of the previous commit moved up
+     * by {@code shift} rows (down if negative). Rows shifted in may still have changed afterwards,
+     * and rows that scrolled in are blank or newly written; all of them are reported dirty.
+     */
+    public record ScrollHint(int top, int bottom, int shift) {
+    }
 
     private final Map<Integer, Page> pages = new HashMap<>();
 
     private int currentPageNumber;
 
-    private final int rows;
-    private final int columns;
+    // Last committed screen; rows reachable from here are immutable (see commit()).
+    private volatile ScreenSnapshot published;
+
+    private int rows;
+    private int columns;
+    private int stride;                                  // allocated cells per storage row (>= columns)
+    private int storageRows;                             // allocated storage rows (>= rows)
+
+    private final ScrollbackBuffer scrollback;
+
+    // Blank template shared by pages that were never written; never modified.
+    private long[] blankCells;
+    private long[][] blankCommitted;
+    private String[] blankCommittedText;
+
+    private final List<ScreenChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final ScreenChangeEvent changeEvent = new ScreenChangeEvent();
 
     public ScreenBuffer(int rows, int columns) {
+        this(rows, columns, DEFAULT_SCROLLBACK_LINES);
+    }
+
+    /** @param scrollbackLines number of history lines to keep; 0 disables the scrollback */
+    public ScreenBuffer(int rows, int columns, int scrollbackLines) {
         if (rows <= 0 || columns <= 0) {
             throw new IllegalArgumentException("rows/columns must be > 0");
         }
+        if (scrollbackLines < 0) {
+            throw new IllegalArgumentException("scrollbackLines must be >= 0");
+        }
         this.rows = rows;
         this.columns = columns;
+        this.stride = columns;
+        this.storageRows = rows;
+        this.scrollback = (scrollbackLines > 0) ? new ScrollbackBuffer(scrollbackLines, columns) : null;
+        this.blankCells = new long[rows * columns];
+        Arrays.fill(blankCells, BLANK);
+        buildBlankCommitted();
         this.currentPageNumber = 1;
-        pages.put(currentPageNumber, createEmptyPage());
+        Page first = createEmptyPage();
+        pages.put(currentPageNumber, first);
+        this.published = new ScreenSnapshot(0, first.committed, first.committedText, columns, 0, 0,
+                currentPageNumber, null, 0, null);
     }
 
 
     public void switchToPage(int pageNumber) {
-        if (pageNumber <= 0) throw new IllegalArgumentException("pageNumber must be > 0");
-        pages.computeIfAbsent(pageNumber, k -> createEmptyPage());
+        pageFor(pageNumber);
         currentPageNumber = pageNumber;
     }
 
@@ -38,53 +116,409 @@ public class ScreenBuffer {
 
     public Cell getCell(int row, int col) {
         ensureValid(row, col);
-        return page().backbuffer[row][col];
+        Page p = page();
+        return Cell.unpack(p.cells[p.rowMap[row] * stride + col]);
+    }
+
+    /** Latest committed screen. Cheap; hold on to it to read several cells consistently. */
+    public ScreenSnapshot snapshot() {
+        return published;
     }
 
     public Cell getVisibleCell(int row, int col) {
+        return published.getCell(row, col);
+    }
+
+    /** Packed back-buffer cell (see {@link Cell#pack(int, int)}). */
+    public long getPacked(int row, int col) {
         ensureValid(row, col);
-        return page().committed[row][col];
+        Page p = page();
+        return p.cells[p.rowMap[row] * stride + col];
+    }
+
+    /** Packed visible cell (see {@link Cell#pack(int, int)}). */
+    public long getVisiblePacked(int row, int col) {
+        return published.getPacked(row, col);
+    }
+
+    /** Scrollback history, or null if disabled. */
+    public ScrollbackBuffer getScrollback() {
+        return scrollback;
+    }
+
+    /** Version of the latest snapshot (see {@link ScreenSnapshot#getVersion()}). */
+    public long getCommitSequence() {
+        return published.getVersion();
+    }
+
+    /** Registers a listener for published versions (see {@link ScreenChangeListener}). */
+    public void addChangeListener(ScreenChangeListener listener) {
+        changeListeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    public void removeChangeListener(ScreenChangeListener listener) {
+        changeListeners.remove(listener);
     }
 
     public void setCell(int row, int col, Cell cell) {
-        ensureValid(row, col);
         Objects.requireNonNull(cell, "cell");
+        setCell(row, col, cell.codePoint(), cell.attr());
+    }
+
+    public void setCell(int row, int col, int codePoint, int attr) {
+        ensureValid(row, col);
+        Page p = page();
+        long packed = Cell.pack(codePoint, attr);
+        int i = p.rowMap[row] * stride + col;
+        if (p.cells[i] != packed) {
+            p.writableCells()[i] = packed;
+            p.markDirty(row, col, col);
+        }
+    }
+
+    /**
+     * Stores a run of glyphs with one attribute word into a row, starting at {@code col}.
+     * Each code point occupies one cell; the run must fit into the row.
+     */
+    public void writeCells(int row, int col, char[] text, int off, int len, int attr) {
+        ensureValid(row, col);
+        Page p = page();
+        long[] cells = p.writableCells();
+        long attrBits = (long) attr << 32;
+        int rowStart = p.rowMap[row] * stride;
+        int i = rowStart + col;
+        int rowEnd = rowStart + columns;
+        int first = -1, last = -1;
+        for (int t = off, end = off + len; t < end; i++) {
+            if (i >= rowEnd) {
+                throw new IndexOutOfBoundsException("Run exceeds row: (" + row + "," + (i - rowStart) + ")");
+            }
+            int cp = text[t];
+            if (Character.isHighSurrogate(text[t]) && t + 1 < end && Character.isLowSurrogate(text[t + 1])) {
+                cp = Character.toCodePoint(text[t], text[t + 1]);
+                t += 2;
+            } else {
+                t++;
+            }
+            long packed = attrBits | cp;
+            if (cells[i] != packed) {
+                cells[i] = packed;
+                if (first < 0) first = i - rowStart;
+                last = i - rowStart;
+            }
+        }
+        if (first >= 0) {
+            p.markDirty(row, first, last);
+        }
+    }
+
+    /**
+     * Scrolls the full-width band {@code top..bottom} (0-based, inclusive) by {@code n} rows:
+     * up for positive n, down for negative n. Rows that scroll in are filled with blanks in
+     * {@code fillAttr}. Only row indices are rotated; the cost does not depend on the width.
+     */
+    public void scrollRows(int top, int bottom, int n, int fillAttr) {
+        ensureValid(top, 0);
+        ensureValid(bottom, 0);
+        int height = bottom - top + 1;
+        if (n == 0 || height <= 0) return;
+        int shift = Math.max(-height, Math.min(height, n));
+        int count = Math.abs(shift);
+
+        Page p = page();
+        int[] map = p.rowMap;
+        int[] tmp = p.rowScratch;
+        if (shift > 0 && top == 0 && scrollback != null && currentPageNumber == 1) {
+            for (int r = 0; r < count; r++) {
+                scrollback.append(p.cells, map[r] * stride, columns);
+            }
+        }
+        if (shift > 0) {
+            System.arraycopy(map, top, tmp, 0, count);                     // rows leaving at the top
+            System.arraycopy(map, top + count, map, top, height - count);
+            System.arraycopy(tmp, 0, map, bottom - count + 1, count);      // reused for the rows scrolling in
+        } else {
+            System.arraycopy(map, bottom - count + 1, tmp, 0, count);
+            System.arraycopy(map, top, map, top + count, height - count);
+            System.arraycopy(tmp, 0, map, top, count);
+        }
+
+        long blank = Cell.pack(Cell.BLANK, fillAttr);
+        if (p.shared && blank == BLANK) {
+            // template stays blank
+        } else {
+            long[] cells = p.writableCells();
+            int firstNew = (shift > 0) ? bottom - count + 1 : top;
+            for (int r = firstNew; r < firstNew + count; r++) {
+                int base = map[r] * stride;
+                Arrays.fill(cells, base, base + columns, blank);
+            }
+        }
+        for (int r = top; r <= bottom; r++) {
+            p.markDirty(r, 0, columns - 1);
+        }
+        p.recordScroll(top, bottom, shift);
+    }
+
+    /**
+     * Fills the rectangle {@code top..bottom} x {@code left..right} (0-based, inclusive) with one glyph
+     * and attribute word. Each row is compared and filled as one segment; only the part that actually
+     * changes is marked as damage.
+     */
+    public void fillRect(int top, int left, int bottom, int right, int codePoint, int attr) {
+        ensureValid(top, left);
+        ensureValid(bottom, right);
+        if (bottom < top || right < left) return;
+        Page p = page();
+        long packed = Cell.pack(codePoint, attr);
+        if (p.shared && packed == BLANK) return;                  // template is blank already
+        for (int r = top; r <= bottom; r++) {
+            int base = p.rowMap[r] * stride;
+            long[] cells = p.cells;
+            int first = left;
+            while (first <= right && cells[base + first] == packed) first++;
+            if (first > right) continue;
+            int last = right;
+            while (cells[base + last] == packed) last--;
+            Arrays.fill(p.writableCells(), base + first, base + last + 1, packed);
+            p.markDirty(r, first, last);
+        }
+    }
+
+    /** Blanks the rectangle {@code top..bottom} x {@code left..right} (0-based, inclusive) in {@code attr}. */
+    public void eraseRect(int top, int left, int bottom, int right, int attr) {
+        fillRect(top, left, bottom, right, Cell.BLANK, attr);
+    }
+
+    /**
+     * Moves the rows of the rectangle {@code top..bottom} x {@code left..right} (0-based, inclusive) up by
+     * {@code n} (down if negative); rows that become free are blanked in {@code fillAttr}. Full-width bands
+     * are handed to {@link #scrollRows(int, int, int, int)}; narrower ones copy one segment per row.
+     */
+    public void shiftRowsInRect(int top, int left, int bottom, int right, int n, int fillAttr) {
+        ensureValid(top, left);
+        ensureValid(bottom, right);
+        int height = bottom - top + 1;
+        if (n == 0 || height <= 0 || right < left) return;
+        if (left == 0 && right == columns - 1) {
+            scrollRows(top, bottom, n, fillAttr);
+            return;
+        }
+        int count = Math.min(height, Math.abs(n));
+        int width = right - left + 1;
+        Page p = page();
+        long[] cells = p.writableCells();
+        if (n > 0) {
+            for (int r = top; r <= bottom - count; r++) {
+                System.arraycopy(cells, p.rowMap[r + count] * stride + left, cells, p.rowMap[r] * stride + left, width);
+                p.markDirty(r, left, right);
+            }
+            eraseRect(bottom - count + 1, left, bottom, right, fillAttr);
+        } else {
+            for (int r = bottom; r >= top + count; r--) {
+                System.arraycopy(cells, p.rowMap[r - count] * stride + left, cells, p.rowMap[r] * stride + left, width);
+                p.markDirty(r, left, right);
+            }
+            eraseRect(top, left, top + count - 1, right, fillAttr);
+        }
+    }
+
+    /**
+     * Inserts {@code n} blank cells at {@code col} of {@code row}: cells {@code col..right} move right by
+     * {@code n}, cells pushed past {@code right} are lost, and the gap is blanked in {@code fillAttr}.
+     */
+    public void insertBlankCells(int row, int col, int n, int right, int fillAttr) {
+        ensureValid(row, col);
+        ensureValid(row, right);
+        if (n <= 0 || right < col) return;
+        int count = Math.min(n, right - col + 1);
         Page p = page();
-        Cell prev = p.backbuffer[row][col];
-        if (!equalsCell(prev, cell)) {
-            p.backbuffer[row][col] = cell;
-            p.dirtyRows[row] = true;
+        long[] cells = p.writableCells();
+        int base = p.rowMap[row] * stride;
+        System.arraycopy(cells, base + col, cells, base + col + count, right - col + 1 - count);
+        Arrays.fill(cells, base + col, base + col + count, Cell.pack(Cell.BLANK, fillAttr));
+        p.markDirty(row, col, right);
+    }
+
+    /**
+     * Copies a rectangle of {@code height} x {@code width} cells from one page to another (or within a
+     * page) without switching the active page. Positions are 0-based; overlapping areas on the same page
+     * are copied as if through a temporary buffer. A page that was never used reads as blank.
+     */
+    public void copyRect(int srcPage, int srcRow, int srcCol, int dstPage, int dstRow, int dstCol,
+                         int height, int width) {
+        if (height <= 0 || width <= 0) return;
+        ensureValid(srcRow, srcCol);
+        ensureValid(srcRow + height - 1, srcCol + width - 1);
+        ensureValid(dstRow, dstCol);
+        ensureValid(dstRow + height - 1, dstCol + width - 1);
+        if (srcPage <= 0) throw new IllegalArgumentException("pageNumber must be > 0");
+
+        Page src = pages.get(srcPage);
+        Page dst = pageFor(dstPage);
+        long[] from = (src != null) ? src.cells : blankCells;
+        if (from == blankCells && dst.shared) return;            // blank onto blank
+
+        long[] to = dst.writableCells();
+        if (src == dst) from = to;
+        boolean bottomUp = src == dst && dstRow > srcRow;         // same page: never read a row already written
+        for (int i = 0; i < height; i++) {
+            int k = bottomUp ? height - 1 - i : i;
+            int s = (src != null ? src.rowMap[srcRow + k] : srcRow + k) * stride + srcCol;
+            int d = dst.rowMap[dstRow + k] * stride + dstCol;
+            System.arraycopy(from, s, to, d, width);
+            dst.markDirty(dstRow + k, dstCol, dstCol + width - 1);
+        }
+    }
+
+    /**
+     * Changes the geometry of all pages to {@code newRows} x {@code newColumns}. The top-left part that
+     * fits is kept; cells that become visible are blank. Storage is only reallocated when the new size
+     * exceeds the largest size used so far. Scroll hints pending for the next commit are dropped.
+     */
+    public void resize(int newRows, int newColumns) {
+        if (newRows <= 0 || newColumns <= 0) {
+            throw new IllegalArgumentException("rows/columns must be > 0");
+        }
+        if (newRows == rows && newColumns == columns) return;
+        int oldRows = rows;
+        int oldColumns = columns;
+        int newStorageRows = Math.max(storageRows, newRows);
+        int newStride = Math.max(stride, newColumns);
+        boolean grow = newStorageRows != storageRows || newStride != stride;
+
+        if (grow) {
+            blankCells = new long[newStorageRows * newStride];
+            Arrays.fill(blankCells, BLANK);
+        }
+        rows = newRows;
+        columns = newColumns;
+        buildBlankCommitted();
+
+        for (Page p : pages.values()) {
+            p.takeScrollHint();
+            if (p.shared) {
+                p.cells = blankCells;
+                if (grow) p.resetStorage(newStorageRows);
+            } else if (grow) {
+                long[] moved = new long[newStorageRows * newStride];
+                Arrays.fill(moved, BLANK);
+                int keep = Math.min(oldColumns, newColumns);
+                for (int r = 0, n = Math.min(oldRows, newRows); r < n; r++) {
+                    System.arraycopy(p.cells, p.rowMap[r] * stride, moved, r * newStride, keep);
+                }
+                p.cells = moved;
+                p.resetStorage(newStorageRows);
+            } else {
+                for (int r = 0; r < newRows; r++) {
+                    int base = p.rowMap[r] * stride;
+                    int from = (r < oldRows) ? Math.min(oldColumns, newColumns) : 0;
+                    Arrays.fill(p.cells, base + from, base + newColumns, BLANK);
+                }
+            }
+            p.committed = blankCommitted;
+            p.committedText = blankCommittedText;
+            for (int r = 0; r < p.dirtyFrom.length; r++) {
+                p.clearDirty(r);
+                if (!p.shared && r < newRows) p.markDirty(r, 0, newColumns - 1);
+            }
         }
+        stride = newStride;
+        storageRows = newStorageRows;
+        logger.debug("Bildschirmgröße geändert: {}x{} -> {}x{}", oldRows, oldColumns, newRows, newColumns);
     }
 
+    /** Commits the back buffer, keeping the cursor of the previous snapshot. */
     public void commit() {
+        commit(published.getCursorRow(), published.getCursorColumn());
+    }
+
+    /**
+     * Publishes the back buffer of the current page and the cursor as a new {@link ScreenSnapshot}.
+     * Dirty rows are copied into fresh arrays; published rows are never modified afterwards, so
+     * readers on other threads always see a complete screen. Clean rows are shared with the
+     * previous version. If neither rows, page nor cursor changed, no new version is published.
+     * The damaged column span of each row is published with the snapshot; after a page switch every
+     * row that differs from the previous version is reported as fully damaged, after a resize every row.
+     */
+    public void commit(int cursorRow, int cursorColumn) {
         Page p = page();
+        ScreenSnapshot prev = published;
+        long[][] next = p.committed;
+        String[] nextText = p.committedText;
+        int[] damage = null;
         for (int r = 0; r < rows; r++) {
-            if (!p.dirtyRows[r]) continue;
-            System.arraycopy(p.backbuffer[r], 0, p.committed[r], 0, columns);
-            p.dirtyRows[r] = false;
+            int from = p.dirtyFrom[r];
+            int to = p.dirtyTo[r];
+            if (from > to) continue;
+            if (damage == null) {
+                next = next.clone();
+                nextText = nextText.clone();
+                damage = ScreenSnapshot.noDamage(rows);
+            }
+            long[] row = new long[columns];
+            System.arraycopy(p.cells, p.rowMap[r] * stride, row, 0, columns);
+            next[r] = row;
+            nextText[r] = rowText(row);
+            damage[2 * r] = from;
+            damage[2 * r + 1] = to;
+            p.clearDirty(r);
+        }
+        boolean resized = prev.getRows() != rows || prev.getColumns() != columns;
+        if (resized) {
+            damage = ScreenSnapshot.noDamage(rows);
+            for (int r = 0; r < rows; r++) {
+                damage[2 * r] = 0;
+                damage[2 * r + 1] = columns - 1;
+            }
+        } else if (prev.page() != currentPageNumber) {
+            long[][] shown = prev.rowArray();
+            for (int r = 0; r < rows; r++) {
+                if (next[r] == shown[r]) continue;
+                if (damage == null) damage = ScreenSnapshot.noDamage(rows);
+                damage[2 * r] = 0;
+                damage[2 * r + 1] = columns - 1;
+            }
+        }
+        if (damage == null && cursorRow == prev.getCursorRow() && cursorColumn == prev.getCursorColumn()) {
+            return;
         }
+        ScrollHint hint = p.takeScrollHint();
+        if (resized || prev.page() != currentPageNumber) {
+            hint = null;                                  // shift is relative to another page or size
+        }
+        p.committed = next;
+        p.committedText = nextText;
+        long history = (scrollback != null) ? scrollback.getTotalLines() : 0;
+        published = new ScreenSnapshot(prev.getVersion() + 1, next, nextText, columns, cursorRow, cursorColumn,
+                currentPageNumber, hint, history, damage);
+        fireChange(prev, published);
     }
 
-    public String toStringVisible() {
-        StringBuilder sb = new StringBuilder(rows * (columns + 1));
-        Cell[][] v = page().committed;
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < columns; c++) {
-                sb.append(v[r][c].character());
+    private void fireChange(ScreenSnapshot prev, ScreenSnapshot next) {
+        if (changeListeners.isEmpty()) return;
+        changeEvent.update(prev, next);
+        for (ScreenChangeListener l : changeListeners) {
+            try {
+                l.onScreenChange(changeEvent);
+            } catch (Throwable t) {
+                logger.warn("Listener-Fehler: {}", t.getMessage());
             }
-            sb.append('\n');
         }
-        return sb.toString();
+    }
+
+    public String toStringVisible() {
+        return published.getText();
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(rows * (columns + 1));
-        Cell[][] b = page().backbuffer;
+        Page p = page();
         for (int r = 0; r < rows; r++) {
+            int base = p.rowMap[r] * stride;
             for (int c = 0; c < columns; c++) {
-                sb.append(b[r][c].character());
+                sb.appendCodePoint(Cell.codePointOf(p.cells[base + c]));
             }
             sb.append('\n');
         }
@@ -99,26 +533,44 @@ public class ScreenBuffer {
         return columns;
     }
 
-    private static final String DEFAULT_STYLE = "fill: white; background: transparent;";
-    private static final Cell DEFAULT_CELL = new Cell(" ", DEFAULT_STYLE);
-
     private Page page() {
         return pages.get(currentPageNumber);
     }
 
+    private Page pageFor(int pageNumber) {
+        if (pageNumber <= 0) throw new IllegalArgumentException("pageNumber must be > 0");
+        return pages.computeIfAbsent(pageNumber, k -> createEmptyPage());
+    }
+
+    /** New page backed by the blank template; its committed state already matches its cells. */
     private Page createEmptyPage() {
-        Cell[][] committed = new Cell[rows][columns];
-        Cell[][] backbuffer = new Cell[rows][columns];
-        boolean[] dirtyRows = new boolean[rows];
+        return new Page(blankCells, blankCommitted, blankCommittedText, storageRows);
+    }
 
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < columns; c++) {
-                committed[r][c] = DEFAULT_CELL;
-                backbuffer[r][c] = DEFAULT_CELL;
+    private void buildBlankCommitted() {
+        long[] blankRow = new long[columns];
+        Arrays.fill(blankRow, BLANK);
+        blankCommitted = new long[rows][];
+        Arrays.fill(blankCommitted, blankRow);
+        blankCommittedText = new String[rows];
+        Arrays.fill(blankCommittedText, rowText(blankRow));
+    }
+
+    /** Text of a packed row; one char per cell unless the row holds supplementary code points. */
+    private static String rowText(long[] row) {
+        char[] chars = new char[row.length];
+        for (int c = 0; c < row.length; c++) {
+            int cp = Cell.codePointOf(row[c]);
+            if (cp > 0xFFFF) {
+                StringBuilder sb = new StringBuilder(row.length + 8).append(chars, 0, c);
+                for (; c < row.length; c++) {
+                    sb.appendCodePoint(Cell.codePointOf(row[c]));
+                }
+                return sb.toString();
             }
-            dirtyRows[r] = true;
+            chars[c] = (char) cp;
         }
-        return new Page(committed, backbuffer, dirtyRows);
+        return new String(chars);
     }
 
     private void ensureValid(int row, int col) {
@@ -131,23 +583,85 @@ public class ScreenBuffer {
         return row >= 0 && row < rows && col >= 0 && col < columns;
     }
 
-    private static boolean equalsCell(Cell a, Cell b) {
-        if (a == b) return true;
-        if (a == null || b == null) return false;
-        return Objects.equals(a.character(), b.character()) &&
-                Objects.equals(a.style(), b.style());
-    }
-
     private static final class Page {
-        final Cell[][] committed;
-        final Cell[][] backbuffer;
-        final boolean[] dirtyRows;
+        long[] cells;
+        boolean shared;                                  // cells is the blank template
+        int[] rowMap;
+        int[] rowScratch;
+        long[][] committed;
+        String[] committedText;
+
+        // Damaged columns per row since the last commit; clean rows have from > to.
+        int[] dirtyFrom;
+        int[] dirtyTo;
 
-        Page(Cell[][] committed, Cell[][] backbuffer, boolean[] dirtyRows) {
+        // Scroll since the last commit: none, one accumulated band, or not describable.
+        private int hintTop = -1;
+        private int hintBottom;
+        private int hintShift;
+        private boolean hintBroken;
+
+        Page(long[] cells, long[][] committed, String[] committedText, int storageRows) {
+            this.cells = cells;
+            this.shared = true;
             this.committed = committed;
-            this.backbuffer = backbuffer;
-            this.dirtyRows = dirtyRows;
+            this.committedText = committedText;
+            resetStorage(storageRows);
         }
-    }
 
+        /** Identity row map and clean damage for {@code storageRows} storage rows. */
+        void resetStorage(int storageRows) {
+            this.dirtyFrom = new int[storageRows];
+            this.dirtyTo = new int[storageRows];
+            this.rowMap = new int[storageRows];
+            this.rowScratch = new int[storageRows];
+            for (int r = 0; r < storageRows; r++) {
+                rowMap[r] = r;
+                clearDirty(r);
+            }
+        }
+
+        /** Cell storage for writing; replaces the shared template by a private copy on first use. */
+        long[] writableCells() {
+            if (shared) {
+                cells = cells.clone();
+                shared = false;
+            }
+            return cells;
+        }
+
+        void markDirty(int row, int from, int to) {
+            if (from < dirtyFrom[row]) dirtyFrom[row] = from;
+            if (to > dirtyTo[row]) dirtyTo[row] = to;
+        }
+
+        void clearDirty(int row) {
+            dirtyFrom[row] = Integer.MAX_VALUE;
+            dirtyTo[row] = -1;
+        }
+
+        void recordScroll(int top, int bottom, int shift) {
+            if (hintBroken) return;
+            if (hintTop < 0) {
+                hintTop = top;
+                hintBottom = bottom;
+                hintShift = shift;
+            } else if (hintTop == top && hintBottom == bottom && Integer.signum(hintShift) == Integer.signum(shift)) {
+                hintShift += shift;
+            } else {
+                hintBroken = true;
+            }
+        }
+
+        ScrollHint takeScrollHint() {
+            ScrollHint hint = null;
+            if (!hintBroken && hintTop >= 0 && Math.abs(hintShift) <= hintBottom - hintTop) {
+                hint = new ScrollHint(hintTop, hintBottom, hintShift);
+            }
+            hintTop = -1;
+            hintShift = 0;
+            hintBroken = false;
+            return hint;
+        }
+    }
 }
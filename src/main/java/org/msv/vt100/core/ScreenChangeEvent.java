@@ -0,0 +1,120 @@
+package org.msv.vt100.core;
+
+import java.util.Arrays;
+
+/**
+ * What one commit changed, relative to the previous version.
+ * Model:
+ * - Changed rows are a bitmap (one bit per row, 0-based); a row is changed if any of its cells is.
+ * - The cursor is reported before and after the commit; a pure cursor move has no changed rows.
+ * Notes:
+ * - One instance per {@link ScreenBuffer}, refilled for every commit; see {@link ScreenChangeListener}.
+ */
+public final class ScreenChangeEvent {
+
+    private long[] changedRows = new long[0];
+    private int rows;
+    private int changedRowCount;
+
+    private ScreenSnapshot snapshot;
+    private int previousCursorRow;
+    private int previousCursorColumn;
+    private boolean pageChanged;
+    private boolean geometryChanged;
+
+    ScreenChangeEvent() {
+    }
+
+    /** Refills the event from a freshly published snapshot and its predecessor. */
+    void update(ScreenSnapshot previous, ScreenSnapshot next) {
+        int n = next.getRows();
+        int words = (n + 63) >>> 6;
+        if (changedRows.length != words) {
+            changedRows = new long[words];
+        } else {
+            Arrays.fill(changedRows, 0L);
+        }
+        rows = n;
+        int count = 0;
+        for (int r = 0; r < n; r++) {
+            if (next.isRowDamaged(r)) {
+                changedRows[r >>> 6] |= 1L << r;
+                count++;
+            }
+        }
+        changedRowCount = count;
+        snapshot = next;
+        previousCursorRow = previous.getCursorRow();
+        previousCursorColumn = previous.getCursorColumn();
+        pageChanged = previous.page() != next.page();
+        geometryChanged = previous.getRows() != n || previous.getColumns() != next.getColumns();
+    }
+
+    /** The published snapshot; safe to keep after the call. */
+    public ScreenSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    public boolean isRowChanged(int row) {
+        return row >= 0 && row < rows && (changedRows[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /** First changed row at or after {@code fromRow}, or -1; iterate like {@link java.util.BitSet#nextSetBit(int)}. */
+    public int nextChangedRow(int fromRow) {
+        if (fromRow < 0) fromRow = 0;
+        if (fromRow >= rows) return -1;
+        int w = fromRow >>> 6;
+        long word = changedRows[w] & (-1L << fromRow);
+        while (true) {
+            if (word != 0) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                return row < rows ? row : -1;
+            }
+            if (++w == changedRows.length) return -1;
+            word = changedRows[w];
+        }
+    }
+
+    public int getChangedRowCount() {
+        return changedRowCount;
+    }
+
+    public boolean isCursorMoved() {
+        return previousCursorRow != snapshot.getCursorRow() || previousCursorColumn != snapshot.getCursorColumn();
+    }
+
+    public int getPreviousCursorRow() {
+        return previousCursorRow;
+    }
+
+    public int getPreviousCursorColumn() {
+        return previousCursorColumn;
+    }
+
+    public int getCursorRow() {
+        return snapshot.getCursorRow();
+    }
+
+    public int getCursorColumn() {
+        return snapshot.getCursorColumn();
+    }
+
+    /** Scroll since the previous version, or null (see {@link ScreenBuffer.ScrollHint}). */
+    public ScreenBuffer.ScrollHint getScrollHint() {
+        return snapshot.getScrollHint();
+    }
+
+    /** True if the commit switched to another page; all differing rows are then reported changed. */
+    public boolean isPageChanged() {
+        return pageChanged;
+    }
+
+    /** True if rows or columns differ from the previous version (see {@link ScreenBuffer#resize(int, int)}). */
+    public boolean isGeometryChanged() {
+        return geometryChanged;
+    }
+}
@@ -0,0 +1,13 @@
+package org.msv.vt100.core;
+
+/**
+ * Notified by {@link ScreenBuffer#commit(int, int)} once per published {@link ScreenSnapshot}.
+ * Notes:
+ * - Called on the committing (emulator) thread; keep the work short or hand it off.
+ * - The event object is reused by the buffer; it is only valid for the duration of the call.
+ *   Keep {@link ScreenChangeEvent#getSnapshot()} if the screen is needed later.
+ */
+@FunctionalInterface
+public interface ScreenChangeListener {
+    void onScreenChange(ScreenChangeEvent event);
+}
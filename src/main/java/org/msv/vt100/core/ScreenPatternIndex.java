@@ -0,0 +1,264 @@
+package org.msv.vt100.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds registered literal prompts on the committed screen.
+ * Model:
+ * - Literals are registered once and compiled into one Aho-Corasick automaton.
+ * - {@link #current()} evaluates the latest {@link ScreenSnapshot}; only rows whose row array
+ *   changed since the previous evaluation are scanned again (snapshots share unchanged rows).
+ * - The result is an immutable {@link Matches} per snapshot version with O(1) lookups.
+ * Semantics:
+ * - Literals match within one row; a literal never spans a line break.
+ * - Positions are the first occurrence in reading order, 0-based.
+ * Notes:
+ * - Thread-safe; intended for automation threads polling the screen.
+ */
+public final class ScreenPatternIndex {
+
+    private static final int ASCII = 128;
+
+    private final ScreenBuffer screenBuffer;
+
+    private final List<String> literals = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    // Automaton: dense transitions for ASCII, sparse maps (with failure links) for other chars.
+    private int[][] asciiNext = new int[0][];
+    private List<Map<Character, Integer>> edges = new ArrayList<>();
+    private int[] fail = new int[0];
+    private int[][] outputs = new int[0][];          // pattern ids ending at a node, incl. via failure links
+
+    // Incremental state: rows scanned last time and the first column of each pattern per row.
+    private long[][] scannedRows;
+    private int[][] rowFirstColumn;
+    private Matches last;
+
+    public ScreenPatternIndex(ScreenBuffer screenBuffer) {
+        this.screenBuffer = screenBuffer;
+        build();
+    }
+
+    /** Registers a literal (idempotent) and returns its id. */
+    public synchronized int register(String literal) {
+        if (literal == null || literal.isEmpty()) {
+            throw new IllegalArgumentException("literal must not be empty");
+        }
+        Integer id = ids.get(literal);
+        if (id != null) return id;
+        int newId = literals.size();
+        literals.add(literal);
+        ids.put(literal, newId);
+        build();
+        return newId;
+    }
+
+    /** Matches on the latest snapshot. */
+    public synchronized Matches current() {
+        return evaluate(screenBuffer.snapshot());
+    }
+
+    /** True if the literal with {@code id} is visible on the latest snapshot. */
+    public boolean isVisible(int id) {
+        return current().isVisible(id);
+    }
+
+    /** First position of the literal (row * columns + column), or -1; see {@link Matches#positionOf(int)}. */
+    public int positionOf(int id) {
+        return current().positionOf(id);
+    }
+
+    private Matches evaluate(ScreenSnapshot snapshot) {
+        int patterns = literals.size();
+        if (last != null && last.version == snapshot.getVersion() && last.firstPosition.length == patterns) {
+            return last;
+        }
+        int rows = snapshot.getRows();
+        int columns = snapshot.getColumns();
+        if (scannedRows == null || scannedRows.length != rows) {
+            scannedRows = new long[rows][];
+            rowFirstColumn = new int[rows][];
+        }
+
+        int[] first = new int[patterns];
+        Arrays.fill(first, -1);
+        for (int r = 0; r < rows; r++) {
+            long[] row = snapshot.getRow(r);
+            if (row != scannedRows[r]) {
+                rowFirstColumn[r] = scanRow(snapshot.getRowText(r), columns);
+                scannedRows[r] = row;
+            }
+            int[] cols = rowFirstColumn[r];
+            for (int id = 0; id < patterns; id++) {
+                if (first[id] < 0 && cols[id] >= 0) {
+                    first[id] = r * columns + cols[id];
+                }
+            }
+        }
+        last = new Matches(this, snapshot, first);
+        return last;
+    }
+
+    /** Returns the first column of each pattern in the row text, -1 where absent. */
+    private int[] scanRow(String text, int columns) {
+        int[] cols = new int[literals.size()];
+        Arrays.fill(cols, -1);
+        boolean oneCharPerCell = text.length() == columns;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            int[] out = outputs[state];
+            for (int id : out) {
+                if (cols[id] >= 0) continue;
+                int start = i - literals.get(id).length() + 1;
+                cols[id] = oneCharPerCell ? start : text.codePointCount(0, start);
+            }
+        }
+        return cols;
+    }
+
+    private int step(int state, char ch) {
+        if (ch < ASCII) {
+            return asciiNext[state][ch];
+        }
+        while (true) {
+            Integer next = edges.get(state).get(ch);
+            if (next != null) return next;
+            if (state == 0) return 0;
+            state = fail[state];
+        }
+    }
+
+    private void build() {
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new HashMap<>());
+        ends.add(new ArrayList<>());
+        for (int id = 0; id < literals.size(); id++) {
+            int node = 0;
+            for (char ch : literals.get(id).toCharArray()) {
+                Integer next = trie.get(node).get(ch);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(node).put(ch, next);
+                    trie.add(new HashMap<>());
+                    ends.add(new ArrayList<>());
+                }
+                node = next;
+            }
+            ends.get(node).add(id);
+        }
+
+        int n = trie.size();
+        int[] f = new int[n];
+        int[][] dense = new int[n][ASCII];
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        queue[tail++] = 0;
+        while (head < tail) {                            // BFS: parents are complete before children
+            int node = queue[head++];
+            if (node != 0) {
+                ends.get(node).addAll(ends.get(f[node]));
+            }
+            for (int ch = 0; ch < ASCII; ch++) {
+                Integer child = trie.get(node).get((char) ch);
+                if (child != null) {
+                    f[child] = (node == 0) ? 0 : dense[f[node]][ch];
+                    dense[node][ch] = child;
+                } else {
+                    dense[node][ch] = (node == 0) ? 0 : dense[f[node]][ch];
+                }
+            }
+            for (Map.Entry<Character, Integer> e : trie.get(node).entrySet()) {
+                char ch = e.getKey();
+                int child = e.getValue();
+                if (ch >= ASCII) {
+                    f[child] = (node == 0) ? 0 : stepSparse(trie, f, f[node], ch);
+                }
+                queue[tail++] = child;
+            }
+        }
+
+        int[][] out = new int[n][];
+        for (int i = 0; i < n; i++) {
+            out[i] = ends.get(i).stream().distinct().mapToInt(Integer::intValue).toArray();
+        }
+        this.edges = trie;
+        this.fail = f;
+        this.asciiNext = dense;
+        this.outputs = out;
+        this.scannedRows = null;                         // new automaton: rescan every row
+        this.last = null;
+    }
+
+    private static int stepSparse(List<Map<Character, Integer>> trie, int[] f, int state, char ch) {
+        while (true) {
+            Integer next = trie.get(state).get(ch);
+            if (next != null) return next;
+            if (state == 0) return 0;
+            state = f[state];
+        }
+    }
+
+    /** Immutable match result for one snapshot version. */
+    public static final class Matches {
+        private final ScreenPatternIndex index;
+        private final ScreenSnapshot snapshot;
+        private final long version;
+        private final int[] firstPosition;
+
+        private Matches(ScreenPatternIndex index, ScreenSnapshot snapshot, int[] firstPosition) {
+            this.index = index;
+            this.snapshot = snapshot;
+            this.version = snapshot.getVersion();
+            this.firstPosition = firstPosition;
+        }
+
+        public ScreenSnapshot snapshot() {
+            return snapshot;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean isVisible(int id) {
+            return positionOf(id) >= 0;
+        }
+
+        /** First occurrence as {@code row * columns + column} (0-based), or -1 if not visible. */
+        public int positionOf(int id) {
+            return (id >= 0 && id < firstPosition.length) ? firstPosition[id] : -1;
+        }
+
+        public int rowOf(int id) {
+            int pos = positionOf(id);
+            return pos < 0 ? -1 : pos / snapshot.getColumns();
+        }
+
+        public int columnOf(int id) {
+            int pos = positionOf(id);
+            return pos < 0 ? -1 : pos % snapshot.getColumns();
+        }
+
+        /**
+         * True if {@code literal} is on this screen. Unregistered literals are registered on first use,
+         * which rebuilds the automaton once.
+         */
+        public boolean contains(String literal) {
+            int id;
+            synchronized (index) {
+                id = index.register(literal);
+                if (id >= firstPosition.length) {
+                    return index.evaluate(snapshot).isVisible(id);
+                }
+            }
+            return isVisible(id);
+        }
+    }
+}
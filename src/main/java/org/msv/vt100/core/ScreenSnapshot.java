@@ -0,0 +1,179 @@
+package org.msv.vt100.core;
+
+/**
+ * Immutable, versioned view of a committed screen, published by {@link ScreenBuffer#commit(int, int)}.
+ * Model:
+ * - Rows are packed cells (see {@link Cell#pack(int, int)}); unchanged rows are shared between versions.
+ * - The version increases by one for every commit that changed rows or the cursor.
+ * - Row texts are built by the commit for changed rows only and shared like the rows; the
+ *   full-screen text is assembled from them once per version, on first use.
+ * - Each row carries the column span that changed since the previous version (its damage).
+ * Semantics:
+ * - Readers on any thread get a consistent screen and cursor without locking.
+ * - Two snapshots with the same version show the same screen.
+ * Notes:
+ * - Row and column indices are 0-based; {@link #getCursorPosition()} is 1-based like {@link Cursor}.
+ */
+public final class ScreenSnapshot {
+
+    private final long version;
+    private final long[][] rows;
+    private final String[] rowTexts;
+    private final int columns;
+    private final int cursorRow;
+    private final int cursorColumn;
+
+    // ScreenBuffer bookkeeping for the renderer
+    private final int page;
+    private final ScreenBuffer.ScrollHint scrollHint;
+    private final long historyLines;
+    private final int[] damage;                          // from/to pairs per row, or null if no row changed
+
+    // Built on first use; racing threads build equal strings, so no synchronization is needed.
+    private String text;
+
+    ScreenSnapshot(long version, long[][] rows, String[] rowTexts, int columns, int cursorRow, int cursorColumn,
+                   int page, ScreenBuffer.ScrollHint scrollHint, long historyLines, int[] damage) {
+        this.version = version;
+        this.rows = rows;
+        this.rowTexts = rowTexts;
+        this.columns = columns;
+        this.cursorRow = cursorRow;
+        this.cursorColumn = cursorColumn;
+        this.page = page;
+        this.scrollHint = scrollHint;
+        this.historyLines = historyLines;
+        this.damage = damage;
+    }
+
+    /** Damage array with every row clean, filled in by {@link ScreenBuffer#commit(int, int)}. */
+    static int[] noDamage(int rows) {
+        int[] damage = new int[2 * rows];
+        for (int r = 0; r < rows; r++) {
+            damage[2 * r] = Integer.MAX_VALUE;
+            damage[2 * r + 1] = -1;
+        }
+        return damage;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getRows() {
+        return rows.length;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getCursorRow() {
+        return cursorRow;
+    }
+
+    public int getCursorColumn() {
+        return cursorColumn;
+    }
+
+    /** Cursor as "row,column" (1-based), same format as {@link Cursor#getCursorPosition()}. */
+    public String getCursorPosition() {
+        return (cursorRow + 1) + "," + (cursorColumn + 1);
+    }
+
+    /** Packed cell (see {@link Cell#pack(int, int)}). */
+    public long getPacked(int row, int col) {
+        ensureValid(row, col);
+        return rows[row][col];
+    }
+
+    public Cell getCell(int row, int col) {
+        return Cell.unpack(getPacked(row, col));
+    }
+
+    /** Row as packed cells. The array is shared and must not be modified. */
+    public long[] getRow(int row) {
+        ensureValid(row, 0);
+        return rows[row];
+    }
+
+    /** Text of columns {@code fromCol..toCol} (0-based, inclusive) of one row. */
+    public String getText(int row, int fromCol, int toCol) {
+        ensureValid(row, fromCol);
+        ensureValid(row, toCol);
+        String rowText = rowTexts[row];
+        if (rowText.length() == columns) {
+            return rowText.substring(fromCol, toCol + 1);      // one char per cell
+        }
+        long[] line = rows[row];
+        StringBuilder sb = new StringBuilder(toCol - fromCol + 1);
+        for (int c = fromCol; c <= toCol; c++) {
+            sb.appendCodePoint(Cell.codePointOf(line[c]));
+        }
+        return sb.toString();
+    }
+
+    /** Cached text of one row (no line terminator). */
+    public String getRowText(int row) {
+        ensureValid(row, 0);
+        return rowTexts[row];
+    }
+
+    /** Whole screen, one line per row, each terminated by '\n'. Built once per version. */
+    public String getText() {
+        String t = text;
+        if (t == null) {
+            StringBuilder sb = new StringBuilder(rows.length * (columns + 1));
+            for (String rowText : rowTexts) {
+                sb.append(rowText).append('\n');
+            }
+            t = sb.toString();
+            text = t;
+        }
+        return t;
+    }
+
+    /** Scroll hint relative to the previous version, or null (see {@link ScreenBuffer.ScrollHint}). */
+    public ScreenBuffer.ScrollHint getScrollHint() {
+        return scrollHint;
+    }
+
+    /**
+     * Number of scrollback lines that had scrolled off when this version was committed.
+     * History line {@code getHistoryLines() - 1} is the line directly above row 0.
+     */
+    public long getHistoryLines() {
+        return historyLines;
+    }
+
+    /** True if any cell of {@code row} changed since the previous version. */
+    public boolean isRowDamaged(int row) {
+        return getDamageTo(row) >= 0;
+    }
+
+    /** First column of {@code row} that changed since the previous version, or -1 if none did. */
+    public int getDamageFrom(int row) {
+        ensureValid(row, 0);
+        return (damage == null || damage[2 * row + 1] < 0) ? -1 : damage[2 * row];
+    }
+
+    /** Last column of {@code row} that changed since the previous version, or -1 if none did. */
+    public int getDamageTo(int row) {
+        ensureValid(row, 0);
+        return damage == null ? -1 : damage[2 * row + 1];
+    }
+
+    int page() {
+        return page;
+    }
+
+    long[][] rowArray() {
+        return rows;
+    }
+
+    private void ensureValid(int row, int col) {
+        if (row < 0 || row >= rows.length || col < 0 || col >= columns) {
+            throw new IndexOutOfBoundsException("Invalid snapshot position: (" + row + "," + col + ")");
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package org.msv.vt100.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * History of lines that scrolled off the top of the screen, stored packed in off-heap memory.
+ * Model:
+ * - Lines are numbered from 0 in the order they were appended; {@link #getTotalLines()} is the
+ *   number of the next line. Only the newest {@link #size()} lines are still available.
+ * - Each line is one record in a direct {@link ByteBuffer} used as a ring:
+ *   header (cell count, run count, code point width), attribute runs (attr int + run length short),
+ *   then the code points as chars (BMP only) or ints. Trailing default blanks are not stored.
+ * - The segment starts small and doubles up to {@code maxBytes}; after that (or after
+ *   {@code maxLines}) the oldest lines are dropped, so memory stays bounded.
+ * - {@code maxBytes} is sized for the column count given at construction and always holds two records
+ *   of the largest line seen; a line wider than that (the screen was widened later) resizes it for
+ *   the new width.
+ * Semantics:
+ * - {@link #append(long[], int, int)} is O(line length); {@link #readLine(long, long[])} is random access.
+ * Notes:
+ * - Written by the emulator thread and read by the FX thread; all methods are synchronized.
+ */
+public final class ScrollbackBuffer {
+
+    private static final long BLANK = Cell.pack(Cell.BLANK, Attributes.DEFAULT);
+
+    private static final int HEADER_BYTES = 5;       // short cells, short runs, byte width
+    private static final int RUN_BYTES = 6;          // int attr, short length
+    private static final int INITIAL_BYTES = 64 * 1024;
+
+    private final int maxLines;
+    private int maxBytes;
+
+    private ByteBuffer data;
+    private final int[] lineOffsets;                 // ring, indexed by line number % maxLines
+    private long firstLine;                          // oldest available line number
+    private long totalLines;                         // next line number
+
+    // Occupied bytes are [head, tail) or, once wrapped, [head, end) + [0, tail).
+    private int head;
+    private int tail;
+    private boolean wrapped;
+
+    // Scratch for encoding one line
+    private int[] runAttrs = new int[16];
+    private int[] runLengths = new int[16];
+
+    /**
+     * @param maxLines maximum number of lines kept (> 0)
+     * @param columns  initial line width; used to size the byte limit (wider lines raise it)
+     */
+    public ScrollbackBuffer(int maxLines, int columns) {
+        if (maxLines <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("maxLines/columns must be > 0");
+        }
+        this.maxLines = maxLines;
+        this.maxBytes = byteLimit(maxLines, columns);
+        this.lineOffsets = new int[maxLines];
+        this.data = allocate(Math.min(INITIAL_BYTES, maxBytes));
+    }
+
+    public synchronized int size() {
+        return (int) (totalLines - firstLine);
+    }
+
+    /** Number of lines ever appended; the number the next line will get. */
+    public synchronized long getTotalLines() {
+        return totalLines;
+    }
+
+    /** Oldest line number that can still be read. */
+    public synchronized long getFirstLine() {
+        return firstLine;
+    }
+
+    public synchronized void clear() {
+        firstLine = totalLines;
+        head = tail = 0;
+        wrapped = false;
+    }
+
+    /** Appends one line of packed cells (see {@link Cell#pack(int, int)}). */
+    public synchronized void append(long[] cells, int off, int len) {
+        int end = off + len;
+        while (end > off && cells[end - 1] == BLANK) end--;
+        int count = end - off;
+
+        int runs = 0;
+        boolean wide = false;
+        for (int i = off; i < end; i++) {
+            int attr = Cell.attrOf(cells[i]);
+            if (runs == 0 || runAttrs[runs - 1] != attr) {
+                if (runs == runAttrs.length) growRunScratch();
+                runAttrs[runs] = attr;
+                runLengths[runs] = 0;
+                runs++;
+            }
+            runLengths[runs - 1]++;
+            if (Cell.codePointOf(cells[i]) > 0xFFFF) wide = true;
+        }
+
+        int bytes = HEADER_BYTES + runs * RUN_BYTES + count * (wide ? 4 : 2);
+        if (bytes > maxBytes / 2) {
+            maxBytes = byteLimit(maxLines, count);      // wider than the screen the limit was sized for
+        }
+        int pos = reserve(bytes);
+
+        data.putShort(pos, (short) count);
+        data.putShort(pos + 2, (short) runs);
+        data.put(pos + 4, (byte) (wide ? 4 : 2));
+        int p = pos + HEADER_BYTES;
+        for (int r = 0; r < runs; r++) {
+            data.putInt(p, runAttrs[r]);
+            data.putShort(p + 4, (short) runLengths[r]);
+            p += RUN_BYTES;
+        }
+        for (int i = off; i < end; i++) {
+            int cp = Cell.codePointOf(cells[i]);
+            if (wide) {
+                data.putInt(p, cp);
+                p += 4;
+            } else {
+                data.putChar(p, (char) cp);
+                p += 2;
+            }
+        }
+
+        lineOffsets[(int) (totalLines % maxLines)] = pos;
+        totalLines++;
+    }
+
+    /**
+     * Reads line {@code lineNumber} into {@code dst}, padding with blanks.
+     * Returns false (and fills blanks) if the line is not available.
+     */
+    public synchronized boolean readLine(long lineNumber, long[] dst) {
+        if (lineNumber < firstLine || lineNumber >= totalLines) {
+            Arrays.fill(dst, BLANK);
+            return false;
+        }
+        int pos = lineOffsets[(int) (lineNumber % maxLines)];
+        int count = data.getShort(pos);
+        int runs = data.getShort(pos + 2);
+        int width = data.get(pos + 4);
+        int runPos = pos + HEADER_BYTES;
+        int p = runPos + runs * RUN_BYTES;
+
+        int c = 0;
+        int limit = Math.min(count, dst.length);
+        for (int r = 0; r < runs && c < limit; r++) {
+            long attrBits = (long) data.getInt(runPos + r * RUN_BYTES) << 32;
+            int runEnd = Math.min(limit, c + data.getShort(runPos + r * RUN_BYTES + 4));
+            for (; c < runEnd; c++, p += width) {
+                int cp = (width == 4) ? data.getInt(p) : data.getChar(p);
+                dst[c] = attrBits | cp;
+            }
+        }
+        Arrays.fill(dst, c, dst.length, BLANK);
+        return true;
+    }
+
+    // ---- ring management ----
+
+    /** Returns the offset of {@code bytes} free contiguous bytes, evicting or growing as needed. */
+    private int reserve(int bytes) {
+        if (size() == maxLines) evictOldest();
+        while (true) {
+            if (size() == 0) {
+                head = tail = 0;
+                wrapped = false;
+            }
+            if (!wrapped) {
+                if (data.capacity() - tail >= bytes) return take(tail, bytes);
+                if (head >= bytes) {
+                    wrapped = true;
+                    return take(0, bytes);
+                }
+            } else if (head - tail >= bytes) {
+                return take(tail, bytes);
+            }
+            if (data.capacity() < maxBytes) {
+                grow(bytes);
+            } else if (size() > 0) {
+                evictOldest();
+            } else {
+                // Unreachable while maxBytes holds two records of the largest line (see append)
+                throw new IllegalStateException("Zeile passt nicht in den Scrollback-Puffer: " + bytes + " Bytes");
+            }
+        }
+    }
+
+    private int take(int pos, int bytes) {
+        tail = pos + bytes;
+        return pos;
+    }
+
+    private void evictOldest() {
+        firstLine++;
+        if (firstLine == totalLines) return;          // empty; reserve() resets the ring
+        int next = lineOffsets[(int) (firstLine % maxLines)];
+        if (next < head) wrapped = false;             // head followed the wrap to the start
+        head = next;
+    }
+
+    /** Doubles the segment (capped at maxBytes) and compacts the lines to its start. */
+    private void grow(int needed) {
+        long want = Math.max((long) data.capacity() * 2, (long) data.capacity() + needed);
+        ByteBuffer bigger = allocate((int) Math.min(maxBytes, want));
+        int p = 0;
+        for (long n = firstLine; n < totalLines; n++) {
+            int slot = (int) (n % maxLines);
+            int from = lineOffsets[slot];
+            int len = recordBytes(from);
+            bigger.put(p, data, from, len);
+            lineOffsets[slot] = p;
+            p += len;
+        }
+        data = bigger;
+        head = 0;
+        tail = p;
+        wrapped = false;
+    }
+
+    private int recordBytes(int pos) {
+        return HEADER_BYTES + data.getShort(pos + 2) * RUN_BYTES + data.getShort(pos) * data.get(pos + 4);
+    }
+
+    private void growRunScratch() {
+        runAttrs = Arrays.copyOf(runAttrs, runAttrs.length * 2);
+        runLengths = Arrays.copyOf(runLengths, runLengths.length * 2);
+    }
+
+    /** Plain text lines need ~2 bytes per cell; allow twice that on average, and at least two worst-case lines. */
+    private static int byteLimit(int maxLines, int columns) {
+        long limit = Math.max((long) maxLines * (HEADER_BYTES + RUN_BYTES * 2 + columns * 4L),
+                2L * maxRecordBytes(columns));
+        return (int) Math.min(Integer.MAX_VALUE - 8, limit);
+    }
+
+    private static int maxRecordBytes(int columns) {
+        return HEADER_BYTES + columns * (RUN_BYTES + 4);
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,197 @@
+package org.msv.vt100.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the emulator core on a single dedicated thread ("vt-emulator").
+ * Model:
+ * - The emulator thread is the only writer of {@link InputProcessor}, {@link ScreenBuffer} and {@link Cursor}.
+ * - Host output is appended with {@link #feed(char[], int, int)} from any thread (usually the SSH reader).
+ * - Other screen mutations (e.g. from the UI) are queued with {@link #submit(Runnable)}; they run in
+ *   arrival order relative to host output (each task remembers how much input was queued before it).
+ * - After each batch the buffer is committed together with the cursor; the FX thread picks up
+ *   the latest new {@link ScreenSnapshot} with {@link #pollFrame()} and renders from it.
+ * Notes:
+ * - Input is double-buffered: the feeder appends to one array while the emulator parses the other,
+ *   so steady state allocates nothing. Feeders block when {@link #MAX_PENDING} chars are queued.
+ * - Frames are coalesced: if the FX thread is slower than the parser, intermediate versions are skipped.
+ *   New versions arrive through a {@link ScreenChangeListener} on the buffer.
+ */
+public final class TerminalEmulator {
+
+    private static final Logger log = LoggerFactory.getLogger(TerminalEmulator.class);
+
+    private static final int INITIAL_BUFFER = 16 * 1024;
+    private static final int MAX_PENDING = 1024 * 1024;
+
+    private final InputProcessor inputProcessor;
+    private final ScreenBuffer screenBuffer;
+    private final Cursor cursor;
+    private final Thread thread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition spaceAvailable = lock.newCondition();
+
+    // guarded by lock
+    private char[] pending = new char[INITIAL_BUFFER];
+    private int pendingLength;
+    private final ArrayDeque<QueuedTask> pendingTasks = new ArrayDeque<>();
+    private boolean running;
+
+    // emulator thread only
+    private char[] draining = new char[INITIAL_BUFFER];
+    private final ArrayDeque<QueuedTask> drainingTasks = new ArrayDeque<>();
+
+    /** A submitted task and the number of pending input chars queued before it. */
+    private record QueuedTask(Runnable task, int inputBefore) {
+    }
+
+    private final AtomicReference<ScreenSnapshot> latestFrame = new AtomicReference<>();
+
+    public TerminalEmulator(InputProcessor inputProcessor, ScreenBuffer screenBuffer, Cursor cursor) {
+        this.inputProcessor = inputProcessor;
+        this.screenBuffer = screenBuffer;
+        this.cursor = cursor;
+        this.thread = new Thread(this::run, "vt-emulator");
+        this.thread.setDaemon(true);
+        screenBuffer.addChangeListener(e -> latestFrame.set(e.getSnapshot()));
+    }
+
+    public void start() {
+        lock.lock();
+        try {
+            if (running) return;
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+        thread.start();
+    }
+
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            workAvailable.signalAll();
+            spaceAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns true if called on the emulator thread. */
+    public boolean isEmulatorThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Queues host output for parsing. The chars are copied; the caller may reuse {@code buf}.
+     * Blocks while the backlog is full.
+     */
+    public void feed(char[] buf, int off, int len) {
+        if (len <= 0) return;
+        lock.lock();
+        try {
+            while (running && pendingLength > 0 && pendingLength + len > MAX_PENDING) {
+                spaceAvailable.awaitUninterruptibly();
+            }
+            if (!running) return;
+            int needed = pendingLength + len;
+            if (needed > pending.length) {
+                char[] grown = new char[Math.max(needed, pending.length * 2)];
+                System.arraycopy(pending, 0, grown, 0, pendingLength);
+                pending = grown;
+            }
+            System.arraycopy(buf, off, pending, pendingLength, len);
+            pendingLength = needed;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code task} on the emulator thread, followed by a commit. Host output fed before this call is
+     * parsed before the task runs; output fed afterwards is parsed after it.
+     */
+    public void submit(Runnable task) {
+        lock.lock();
+        try {
+            if (!running) return;
+            pendingTasks.add(new QueuedTask(task, pendingLength));
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns the latest snapshot not yet seen by the caller, or null if nothing changed. */
+    public ScreenSnapshot pollFrame() {
+        return latestFrame.getAndSet(null);
+    }
+
+    // ---- emulator thread ----
+
+    private void run() {
+        log.debug("Emulator-Thread gestartet.");
+        while (true) {
+            char[] buf;
+            int len;
+            lock.lock();
+            try {
+                while (running && pendingLength == 0 && pendingTasks.isEmpty()) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                if (!running) break;
+
+                buf = pending;
+                len = pendingLength;
+                pending = draining;
+                draining = buf;
+                pendingLength = 0;
+                drainingTasks.addAll(pendingTasks);
+                pendingTasks.clear();
+                spaceAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            // Input that arrived before a task is parsed before it runs
+            int parsed = 0;
+            QueuedTask queued;
+            while ((queued = drainingTasks.poll()) != null) {
+                parse(buf, parsed, queued.inputBefore() - parsed);
+                parsed = Math.max(parsed, queued.inputBefore());
+                try {
+                    queued.task().run();
+                } catch (Exception e) {
+                    log.warn("Emulator-Aufgabe fehlgeschlagen: {}", e.toString());
+                }
+            }
+            parse(buf, parsed, len - parsed);
+
+            publishFrame();
+        }
+        log.debug("Emulator-Thread beendet.");
+    }
+
+    private void parse(char[] buf, int off, int len) {
+        if (len <= 0) return;
+        try {
+            inputProcessor.processInput(buf, off, len);
+        } catch (Exception e) {
+            log.warn("Verarbeitung der Eingabe fehlgeschlagen: {}", e.toString());
+        }
+    }
+
+    private void publishFrame() {
+        screenBuffer.commit(cursor.getRow(), cursor.getColumn());
+    }
+}
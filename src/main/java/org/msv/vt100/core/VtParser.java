@@ -0,0 +1,388 @@
+package org.msv.vt100.core;
+
+/**
+ * Table-driven VT500-series input parser modelled on the DEC ANSI parser state diagram.
+ * States:
+ * - GROUND, ESCAPE, ESCAPE_INTERMEDIATE
+ * - CSI_ENTRY, CSI_PARAM, CSI_INTERMEDIATE, CSI_IGNORE
+ * - DCS_ENTRY, DCS_PARAM, DCS_INTERMEDIATE, DCS_PASSTHROUGH, DCS_IGNORE
+ * - OSC_STRING, SOS_PM_APC_STRING
+ * Semantics:
+ * - Every input char costs one table lookup; no Strings are built and nothing is allocated per char.
+ * - Numeric parameters are accumulated as ints (empty parameter == 0, i.e. "default").
+ * - Only one intermediate byte is kept; sequences with more are parsed but not dispatched.
+ * - Chars >= 0x80 are printable in GROUND, payload inside OSC/DCS strings and ignored elsewhere.
+ * - In GROUND, consecutive printable chars are handed over as one run (a slice of the input array);
+ *   surrogate pairs are never split across runs.
+ * Notes:
+ * - The parser keeps its state between calls, so sequences may be split across input chunks.
+ * - All semantic work is delegated to a {@link Performer}.
+ */
+public final class VtParser {
+
+    /** Receives the parser actions. Array arguments are only valid for the duration of the call. */
+    public interface Performer {
+        /** A run of printable text, {@code len >= 1}. */
+        void print(char[] buf, int off, int len);
+
+        void execute(char control);
+
+        void escDispatch(char intermediate, char finalChar);
+
+        void csiDispatch(char privateMarker, char intermediate, int[] params, int paramCount, char finalChar);
+
+        void oscDispatch(CharSequence payload);
+
+        void dcsHook(char privateMarker, char intermediate, int[] params, int paramCount, char finalChar);
+
+        void dcsPut(char ch);
+
+        void dcsUnhook();
+    }
+
+    public static final int MAX_PARAMS = 16;
+    private static final int MAX_PARAM_VALUE = 65_535;
+    private static final int MAX_OSC_LEN = 4096;
+
+    // ---- states ----
+    private static final int GROUND = 0;
+    private static final int ESCAPE = 1;
+    private static final int ESCAPE_INTERMEDIATE = 2;
+    private static final int CSI_ENTRY = 3;
+    private static final int CSI_PARAM = 4;
+    private static final int CSI_INTERMEDIATE = 5;
+    private static final int CSI_IGNORE = 6;
+    private static final int DCS_ENTRY = 7;
+    private static final int DCS_PARAM = 8;
+    private static final int DCS_INTERMEDIATE = 9;
+    private static final int DCS_PASSTHROUGH = 10;
+    private static final int DCS_IGNORE = 11;
+    private static final int OSC_STRING = 12;
+    private static final int SOS_PM_APC_STRING = 13;
+    private static final int STATE_COUNT = 14;
+
+    // ---- actions ----
+    private static final int NONE = 0;
+    private static final int PRINT = 1;
+    private static final int EXECUTE = 2;
+    private static final int COLLECT = 3;
+    private static final int PARAM = 4;
+    private static final int ESC_DISPATCH = 5;
+    private static final int CSI_DISPATCH = 6;
+    private static final int PUT = 7;
+    private static final int OSC_PUT = 8;
+
+    /*
+     * Table entry layout (short): bits 0..3 target state, bit 4 "transition" flag, bits 8..11 action.
+     * Entries without the transition flag keep the current state and skip entry/exit actions.
+     */
+    private static final int TRANSITION = 0x10;
+    private static final short[] TABLE = new short[STATE_COUNT * 0x80];
+
+    static {
+        for (int s = 0; s < STATE_COUNT; s++) {
+            // C0 controls are executed in every state unless a state overrides them below
+            range(s, 0x00, 0x17, EXECUTE);
+            range(s, 0x19, 0x19, EXECUTE);
+            range(s, 0x1C, 0x1F, EXECUTE);
+            // "anywhere" transitions
+            to(s, 0x18, EXECUTE, GROUND);
+            to(s, 0x1A, EXECUTE, GROUND);
+            to(s, 0x1B, NONE, ESCAPE);
+        }
+
+        range(GROUND, 0x20, 0x7E, PRINT);
+
+        range(ESCAPE, 0x20, 0x2F, COLLECT, ESCAPE_INTERMEDIATE);
+        range(ESCAPE, 0x30, 0x7E, ESC_DISPATCH, GROUND);
+        to(ESCAPE, 'P', NONE, DCS_ENTRY);
+        to(ESCAPE, '[', NONE, CSI_ENTRY);
+        to(ESCAPE, ']', NONE, OSC_STRING);
+        to(ESCAPE, 'X', NONE, SOS_PM_APC_STRING);
+        to(ESCAPE, '^', NONE, SOS_PM_APC_STRING);
+        to(ESCAPE, '_', NONE, SOS_PM_APC_STRING);
+
+        range(ESCAPE_INTERMEDIATE, 0x20, 0x2F, COLLECT);
+        range(ESCAPE_INTERMEDIATE, 0x30, 0x7E, ESC_DISPATCH, GROUND);
+
+        range(CSI_ENTRY, 0x20, 0x2F, COLLECT, CSI_INTERMEDIATE);
+        range(CSI_ENTRY, 0x30, 0x39, PARAM, CSI_PARAM);
+        to(CSI_ENTRY, ';', PARAM, CSI_PARAM);
+        to(CSI_ENTRY, ':', NONE, CSI_IGNORE);
+        range(CSI_ENTRY, 0x3C, 0x3F, COLLECT, CSI_PARAM);
+        range(CSI_ENTRY, 0x40, 0x7E, CSI_DISPATCH, GROUND);
+
+        range(CSI_PARAM, 0x20, 0x2F, COLLECT, CSI_INTERMEDIATE);
+        range(CSI_PARAM, 0x30, 0x39, PARAM);
+        to(CSI_PARAM, ';', PARAM, -1);
+        to(CSI_PARAM, ':', NONE, CSI_IGNORE);
+        range(CSI_PARAM, 0x3C, 0x3F, NONE, CSI_IGNORE);
+        range(CSI_PARAM, 0x40, 0x7E, CSI_DISPATCH, GROUND);
+
+        range(CSI_INTERMEDIATE, 0x20, 0x2F, COLLECT);
+        range(CSI_INTERMEDIATE, 0x30, 0x3F, NONE, CSI_IGNORE);
+        range(CSI_INTERMEDIATE, 0x40, 0x7E, CSI_DISPATCH, GROUND);
+
+        range(CSI_IGNORE, 0x40, 0x7E, NONE, GROUND);
+
+        range(DCS_ENTRY, 0x00, 0x17, NONE);
+        range(DCS_ENTRY, 0x19, 0x19, NONE);
+        range(DCS_ENTRY, 0x1C, 0x1F, NONE);
+        range(DCS_ENTRY, 0x20, 0x2F, COLLECT, DCS_INTERMEDIATE);
+        range(DCS_ENTRY, 0x30, 0x39, PARAM, DCS_PARAM);
+        to(DCS_ENTRY, ';', PARAM, DCS_PARAM);
+        to(DCS_ENTRY, ':', NONE, DCS_IGNORE);
+        range(DCS_ENTRY, 0x3C, 0x3F, COLLECT, DCS_PARAM);
+        range(DCS_ENTRY, 0x40, 0x7E, NONE, DCS_PASSTHROUGH);
+
+        range(DCS_PARAM, 0x00, 0x17, NONE);
+        range(DCS_PARAM, 0x19, 0x19, NONE);
+        range(DCS_PARAM, 0x1C, 0x1F, NONE);
+        range(DCS_PARAM, 0x20, 0x2F, COLLECT, DCS_INTERMEDIATE);
+        range(DCS_PARAM, 0x30, 0x39, PARAM);
+        to(DCS_PARAM, ';', PARAM, -1);
+        to(DCS_PARAM, ':', NONE, DCS_IGNORE);
+        range(DCS_PARAM, 0x3C, 0x3F, NONE, DCS_IGNORE);
+        range(DCS_PARAM, 0x40, 0x7E, NONE, DCS_PASSTHROUGH);
+
+        range(DCS_INTERMEDIATE, 0x00, 0x17, NONE);
+        range(DCS_INTERMEDIATE, 0x19, 0x19, NONE);
+        range(DCS_INTERMEDIATE, 0x1C, 0x1F, NONE);
+        range(DCS_INTERMEDIATE, 0x20, 0x2F, COLLECT);
+        range(DCS_INTERMEDIATE, 0x30, 0x3F, NONE, DCS_IGNORE);
+        range(DCS_INTERMEDIATE, 0x40, 0x7E, NONE, DCS_PASSTHROUGH);
+
+        range(DCS_PASSTHROUGH, 0x00, 0x17, PUT);
+        range(DCS_PASSTHROUGH, 0x19, 0x19, PUT);
+        range(DCS_PASSTHROUGH, 0x1C, 0x1F, PUT);
+        range(DCS_PASSTHROUGH, 0x20, 0x7E, PUT);
+
+        range(DCS_IGNORE, 0x00, 0x17, NONE);
+        range(DCS_IGNORE, 0x19, 0x19, NONE);
+        range(DCS_IGNORE, 0x1C, 0x1F, NONE);
+
+        range(OSC_STRING, 0x00, 0x17, NONE);
+        range(OSC_STRING, 0x19, 0x19, NONE);
+        range(OSC_STRING, 0x1C, 0x1F, NONE);
+        to(OSC_STRING, 0x07, NONE, GROUND);          // xterm: BEL terminates OSC
+        range(OSC_STRING, 0x20, 0x7F, OSC_PUT);
+
+        range(SOS_PM_APC_STRING, 0x00, 0x17, NONE);
+        range(SOS_PM_APC_STRING, 0x19, 0x19, NONE);
+        range(SOS_PM_APC_STRING, 0x1C, 0x1F, NONE);
+    }
+
+    private final Performer performer;
+
+    private int state = GROUND;
+
+    private final int[] params = new int[MAX_PARAMS];
+    private int paramCount;
+    private char privateMarker;
+    private char intermediate;
+    private boolean intermediateOverflow;
+
+    private final StringBuilder oscBuf = new StringBuilder(256);
+    private char pendingHighSurrogate;
+    private final char[] single = new char[2];
+
+    public VtParser(Performer performer) {
+        this.performer = performer;
+    }
+
+    /** Feeds {@code len} chars starting at {@code off}. */
+    public void process(char[] buf, int off, int len) {
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            char ch = buf[i];
+            if (state == GROUND && pendingHighSurrogate == 0) {
+                int runEnd = scanPrintable(buf, i, end);
+                if (runEnd > i) {
+                    performer.print(buf, i, runEnd - i);
+                    i = runEnd - 1;
+                    continue;
+                }
+            }
+            if (ch >= 0x80) {
+                processNonAscii(ch);
+                continue;
+            }
+            if (pendingHighSurrogate != 0) {
+                pendingHighSurrogate = 0;          // dangling high surrogate is dropped
+            }
+            int entry = TABLE[state * 0x80 + ch];
+            int action = (entry >>> 8) & 0x0F;
+            if ((entry & TRANSITION) != 0) {
+                int next = entry & 0x0F;
+                exitState(state);
+                perform(action, ch);
+                state = next;
+                enterState(next, ch);
+            } else {
+                perform(action, ch);
+            }
+        }
+    }
+
+    /** Returns true while a control sequence or control string is partially parsed. */
+    public boolean isInSequence() {
+        return state != GROUND;
+    }
+
+    // ---- internals ----
+
+    /** Returns the end (exclusive) of the printable run starting at {@code from}. */
+    private static int scanPrintable(char[] buf, int from, int end) {
+        int j = from;
+        while (j < end) {
+            char c = buf[j];
+            if (c >= 0x20 && c < 0x7F) {
+                j++;
+            } else if (c >= 0xA0 && !Character.isSurrogate(c)) {
+                j++;
+            } else if (Character.isHighSurrogate(c) && j + 1 < end && Character.isLowSurrogate(buf[j + 1])) {
+                j += 2;
+            } else {
+                break;
+            }
+        }
+        return j;
+    }
+
+    private void printSingle(char ch) {
+        single[0] = ch;
+        performer.print(single, 0, 1);
+    }
+
+    private void processNonAscii(char ch) {
+        switch (state) {
+            case GROUND -> printNonAscii(ch);
+            case OSC_STRING -> oscPut(ch);
+            case DCS_PASSTHROUGH -> performer.dcsPut(ch);
+            default -> { /* ignored inside sequences */ }
+        }
+    }
+
+    private void printNonAscii(char ch) {
+        if (ch < 0xA0) {
+            return;                                 // C1 controls are not honoured in 7-bit mode
+        }
+        if (Character.isHighSurrogate(ch)) {
+            pendingHighSurrogate = ch;
+            return;
+        }
+        if (Character.isLowSurrogate(ch)) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (high != 0) {
+                single[0] = high;
+                single[1] = ch;
+                performer.print(single, 0, 2);
+            }
+            return;
+        }
+        pendingHighSurrogate = 0;
+        printSingle(ch);
+    }
+
+    private void perform(int action, char ch) {
+        switch (action) {
+            case PRINT -> printSingle(ch);
+            case EXECUTE -> performer.execute(ch);
+            case COLLECT -> collect(ch);
+            case PARAM -> param(ch);
+            case ESC_DISPATCH -> {
+                if (!intermediateOverflow) performer.escDispatch(intermediate, ch);
+            }
+            case CSI_DISPATCH -> {
+                if (!intermediateOverflow) {
+                    performer.csiDispatch(privateMarker, intermediate, params, paramCount, ch);
+                }
+            }
+            case PUT -> performer.dcsPut(ch);
+            case OSC_PUT -> oscPut(ch);
+            default -> { /* NONE */ }
+        }
+    }
+
+    private void enterState(int s, char ch) {
+        switch (s) {
+            case ESCAPE, CSI_ENTRY, DCS_ENTRY -> clear();
+            case OSC_STRING -> oscBuf.setLength(0);
+            case DCS_PASSTHROUGH -> {
+                if (!intermediateOverflow) {
+                    performer.dcsHook(privateMarker, intermediate, params, paramCount, ch);
+                }
+            }
+            default -> { }
+        }
+    }
+
+    private void exitState(int s) {
+        switch (s) {
+            case OSC_STRING -> performer.oscDispatch(oscBuf);
+            case DCS_PASSTHROUGH -> performer.dcsUnhook();
+            default -> { }
+        }
+    }
+
+    private void clear() {
+        paramCount = 0;
+        privateMarker = 0;
+        intermediate = 0;
+        intermediateOverflow = false;
+    }
+
+    private void collect(char ch) {
+        if (ch >= 0x3C && ch <= 0x3F) {
+            privateMarker = ch;
+        } else if (intermediate == 0) {
+            intermediate = ch;
+        } else {
+            intermediateOverflow = true;
+        }
+    }
+
+    private void param(char ch) {
+        if (paramCount == 0) {
+            params[0] = 0;
+            paramCount = 1;
+        }
+        if (ch == ';') {
+            if (paramCount < MAX_PARAMS) {
+                params[paramCount++] = 0;
+            }
+            return;
+        }
+        int idx = paramCount - 1;
+        int v = params[idx] * 10 + (ch - '0');
+        params[idx] = Math.min(v, MAX_PARAM_VALUE);
+    }
+
+    private void oscPut(char ch) {
+        if (oscBuf.length() < MAX_OSC_LEN) {
+            oscBuf.append(ch);
+        }
+    }
+
+    // ---- table construction ----
+
+    private static void range(int state, int from, int to, int action) {
+        for (int c = from; c <= to; c++) {
+            TABLE[state * 0x80 + c] = (short) (action << 8);
+        }
+    }
+
+    private static void range(int state, int from, int to, int action, int next) {
+        for (int c = from; c <= to; c++) {
+            TABLE[state * 0x80 + c] = (short) ((action << 8) | TRANSITION | next);
+        }
+    }
+
+    /** Single entry; {@code next == -1} keeps the current state. */
+    private static void to(int state, int c, int action, int next) {
+        TABLE[state * 0x80 + c] = (next < 0)
+                ? (short) (action << 8)
+                : (short) ((action << 8) | TRANSITION | next);
+    }
+}
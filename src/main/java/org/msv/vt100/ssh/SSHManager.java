@@ -9,14 +9,15 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Consumer;
 
 
 public class SSHManager implements AutoCloseable {
@@ -25,6 +26,7 @@ public class SSHManager implements AutoCloseable {
 
     private static final int CONNECT_TIMEOUT_MS = 3_000;
     private static final int CHANNEL_TIMEOUT_MS = 3_000;
+    private static final int READ_BUFFER_SIZE = 8192;
 
     private final SSHConfig config;
 
@@ -44,13 +46,17 @@ public class SSHManager implements AutoCloseable {
         return t;
     });
 
-    private final List<Consumer<String>> dataListeners = new CopyOnWriteArrayList<>();
+    private final List<TerminalDataListener> dataListeners = new CopyOnWriteArrayList<>();
     private final AtomicBoolean isConnected = new AtomicBoolean(false);
 
     private String knownHostsPath = null;
     private int serverAliveIntervalMs = 15_000;
     private int serverAliveCountMax = 3;
 
+    // Terminal size announced to the host (requested with the PTY, updated by window-change requests)
+    private volatile int ptyColumns = 80;
+    private volatile int ptyRows = 24;
+
     public SSHManager(SSHConfig config) {
         this.config = Objects.requireNonNull(config, "config");
     }
@@ -80,7 +86,7 @@ public class SSHManager implements AutoCloseable {
         logger.debug("Gesendet: {}", data);
     }
 
-    public void addDataListener(Consumer<String> listener) {
+    public void addDataListener(TerminalDataListener listener) {
         dataListeners.add(listener);
     }
 
@@ -102,6 +108,26 @@ public class SSHManager implements AutoCloseable {
         return this;
     }
 
+    /**
+     * Sets the terminal size reported to the host. Before connecting it is requested with the PTY;
+     * on an open channel it is sent as a window-change request.
+     */
+    public void setPtySize(int columns, int rows) {
+        if (columns <= 0 || rows <= 0) return;
+        ptyColumns = columns;
+        ptyRows = rows;
+        ChannelShell ch = channel;
+        if (ch != null && ch.isConnected()) {
+            ch.setPtySize(columns, rows, 0, 0);
+            logger.debug("PTY-Größe an Host gemeldet: {}x{}", columns, rows);
+        }
+    }
+
+    public SSHManager withPtySize(int columns, int rows) {
+        setPtySize(columns, rows);
+        return this;
+    }
+
     private void connect() throws JSchException, IOException {
         JSch jsch = new JSch();
 
@@ -179,6 +205,7 @@ public class SSHManager implements AutoCloseable {
         }
 
         channel = (ChannelShell) session.openChannel("shell");
+        channel.setPtySize(ptyColumns, ptyRows, 0, 0);
         inputStream = channel.getInputStream();
         outputStream = channel.getOutputStream();
 
@@ -206,21 +233,38 @@ public class SSHManager implements AutoCloseable {
         return System.getProperty("user.home") + File.separator + ".ssh" + File.separator + "known_hosts";
     }
 
+    /**
+     * Reads the channel on the reader thread and decodes UTF-8 incrementally.
+     * Notes:
+     * - Byte and char buffers are allocated once per connection and reused for every read.
+     * - Incomplete multi-byte sequences at the end of a read stay in the byte buffer and are
+     *   completed by the next read; malformed input is replaced with U+FFFD.
+     */
     private void startReading() {
         readerExecutor.submit(() -> {
-            byte[] buffer = new byte[4096];
+            ByteBuffer bytes = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            CharBuffer chars = CharBuffer.allocate(READ_BUFFER_SIZE);
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
             try {
                 int bytesRead;
-                while (isConnected.get() && inputStream != null && (bytesRead = inputStream.read(buffer)) != -1) {
+                while (isConnected.get() && inputStream != null
+                        && (bytesRead = inputStream.read(bytes.array(), bytes.position(), bytes.remaining())) != -1) {
                     if (bytesRead == 0) continue;
-                    String received = new String(buffer, 0, bytesRead, StandardCharsets.UTF_8);
-                    logger.debug("Empfangen: {}", received);
-                    for (Consumer<String> l : dataListeners) {
-                        try { l.accept(received); } catch (Throwable t) {
-                            logger.warn("Listener-Fehler: {}", t.getMessage());
-                        }
+                    bytes.position(bytes.position() + bytesRead);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Empfangen: {} Bytes", bytesRead);
                     }
+                    bytes.flip();
+                    decoder.decode(bytes, chars, false);
+                    bytes.compact();
+                    dispatch(chars);
                 }
+                bytes.flip();
+                decoder.decode(bytes, chars, true);
+                decoder.flush(chars);
+                dispatch(chars);
             } catch (IOException e) {
                 if (isConnected.get()) {
                     logger.error("Fehler beim Lesen der SSH-Daten", e);
@@ -233,6 +277,19 @@ public class SSHManager implements AutoCloseable {
         });
     }
 
+    private void dispatch(CharBuffer chars) {
+        chars.flip();
+        int len = chars.remaining();
+        if (len > 0) {
+            for (TerminalDataListener l : dataListeners) {
+                try { l.onData(chars.array(), chars.position(), len); } catch (Throwable t) {
+                    logger.warn("Listener-Fehler: {}", t.getMessage());
+                }
+            }
+        }
+        chars.clear();
+    }
+
     private void shutdownExecutors() {
         shutdownExecutor(readerExecutor, "readerExecutor");
         shutdownExecutor(connectExecutor, "connectExecutor");
@@ -0,0 +1,12 @@
+package org.msv.vt100.ssh;
+
+/**
+ * Receives decoded terminal output from the SSH reader thread.
+ * Notes:
+ * - The array is reused by the reader; it is only valid for the duration of the call.
+ * - Implementations that hand data to another thread must copy it first.
+ */
+@FunctionalInterface
+public interface TerminalDataListener {
+    void onData(char[] buf, int off, int len);
+}
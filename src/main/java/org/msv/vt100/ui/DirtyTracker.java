@@ -1,37 +1,80 @@
 package org.msv.vt100.ui;
 
-import java.util.Arrays;
-
+/**
+ * Display rows waiting to be repainted, each with the span of columns that needs it.
+ * Semantics:
+ * - Spans only grow until the row is cleared; a clean row has from > to.
+ * - Marks never spill into neighbouring rows; glyph overhang is covered by the canvas margin.
+ */
 final class DirtyTracker {
-    private boolean[] dirtyRows;
+    private int columns;
+    private int[] dirtyFrom;
+    private int[] dirtyTo;
 
-    DirtyTracker(int rows) { this.dirtyRows = new boolean[rows]; markAllDirty(); }
+    DirtyTracker(int rows, int columns) {
+        this.columns = columns;
+        this.dirtyFrom = new int[rows];
+        this.dirtyTo = new int[rows];
+        markAllDirty();
+    }
 
-    void ensureSize(int rows) {
-        if (dirtyRows.length != rows) {
-            dirtyRows = new boolean[rows];
+    void ensureSize(int rows, int columns) {
+        if (dirtyFrom.length != rows || this.columns != columns) {
+            this.columns = columns;
+            dirtyFrom = new int[rows];
+            dirtyTo = new int[rows];
             markAllDirty();
         }
     }
 
-    void markAllDirty() { Arrays.fill(dirtyRows, true); }
+    void markAllDirty() {
+        for (int r = 0; r < dirtyFrom.length; r++) markRowDirty(r);
+    }
 
     void markRowDirty(int r) {
-        if (r >= 0 && r < dirtyRows.length) dirtyRows[r] = true;
-        if (r - 1 >= 0) dirtyRows[r - 1] = true;
-        if (r + 1 < dirtyRows.length) dirtyRows[r + 1] = true;
+        markCellsDirty(r, 0, columns - 1);
+    }
+
+    void markCellsDirty(int r, int from, int to) {
+        if (r < 0 || r >= dirtyFrom.length || to < from) return;
+        if (from < dirtyFrom[r]) dirtyFrom[r] = Math.max(0, from);
+        if (to > dirtyTo[r]) dirtyTo[r] = Math.min(columns - 1, to);
     }
 
     void markSelectionRangeDirty(Integer startRow, Integer endRow) {
         if (startRow == null || endRow == null) return;
         int from = Math.max(0, Math.min(startRow, endRow));
-        int to   = Math.min(dirtyRows.length - 1, Math.max(startRow, endRow));
-        for (int r = from; r <= to; r++) dirtyRows[r] = true;
-        if (from - 1 >= 0) dirtyRows[from - 1] = true;
-        if (to + 1 < dirtyRows.length) dirtyRows[to + 1] = true;
+        int to   = Math.min(dirtyFrom.length - 1, Math.max(startRow, endRow));
+        for (int r = from; r <= to; r++) markRowDirty(r);
     }
 
-    boolean isRowDirty(int r) { return r >= 0 && r < dirtyRows.length && dirtyRows[r]; }
-    void clearRow(int r) { if (r >= 0 && r < dirtyRows.length) dirtyRows[r] = false; }
-}
+    /**
+     * Moves the pending spans of rows {@code top..bottom} up by {@code shift} (down if negative), along
+     * with pixels that were blitted; the rows exposed by the move become fully dirty.
+     */
+    void shiftRows(int top, int bottom, int shift) {
+        int count = Math.abs(shift);
+        int moved = bottom - top + 1 - count;
+        if (count == 0 || moved <= 0) return;
+        int src = shift > 0 ? top + count : top;
+        int dst = shift > 0 ? top : top + count;
+        System.arraycopy(dirtyFrom, src, dirtyFrom, dst, moved);
+        System.arraycopy(dirtyTo, src, dirtyTo, dst, moved);
+        int exposed = shift > 0 ? bottom - count + 1 : top;
+        for (int r = exposed; r < exposed + count; r++) {
+            clearRow(r);
+            markRowDirty(r);
+        }
+    }
+
+    boolean isRowDirty(int r) { return r >= 0 && r < dirtyFrom.length && dirtyFrom[r] <= dirtyTo[r]; }
+    int dirtyFrom(int r) { return dirtyFrom[r]; }
+    int dirtyTo(int r) { return dirtyTo[r]; }
 
+    void clearRow(int r) {
+        if (r >= 0 && r < dirtyFrom.length) {
+            dirtyFrom[r] = Integer.MAX_VALUE;
+            dirtyTo[r] = -1;
+        }
+    }
+}
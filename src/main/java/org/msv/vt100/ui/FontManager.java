@@ -11,6 +11,7 @@ import java.util.Set;
 
 final class FontManager {
     private Font normalFont, boldFont;
+    private double lastFontCellW = -1;
     private double lastFontCellH = -1;
     private final String family;
 
@@ -18,11 +19,14 @@ final class FontManager {
         this.family = chooseFontFamily();
     }
 
-    boolean updateForCellHeight(double cellHeight) {
-        if (cellHeight == lastFontCellH) return false;
+    /** Picks the font for the cell size; narrow cells (e.g. 132 columns) shrink the font to fit the width. */
+    boolean updateForCellSize(double cellWidth, double cellHeight) {
+        if (cellWidth == lastFontCellW && cellHeight == lastFontCellH) return false;
         double px = computeFontPxForCellHeight(family, cellHeight);
+        px = fitFontPxToCellWidth(family, px, cellWidth);
         normalFont = Font.font(family, px);
         boldFont = Font.font(family, FontWeight.BOLD, px);
+        lastFontCellW = cellWidth;
         lastFontCellH = cellHeight;
         return true;
     }
@@ -38,6 +42,14 @@ final class FontManager {
         return Font.getDefault().getFamily();
     }
 
+    private static double fitFontPxToCellWidth(String family, double px, double cellW) {
+        Text t = new Text("M");
+        t.setFont(Font.font(family, FontWeight.BOLD, px));
+        double w = t.getLayoutBounds().getWidth();
+        if (w <= cellW || w <= 0) return px;
+        return Math.max(6, Math.floor(px * cellW / w));
+    }
+
     private static double computeFontPxForCellHeight(String family, double cellH) {
         double low = 6, high = Math.max(8, cellH);
         double best = Math.max(8, Math.floor(cellH * 0.82));
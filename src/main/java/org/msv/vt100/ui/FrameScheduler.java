@@ -0,0 +1,166 @@
+package org.msv.vt100.ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides on which JavaFX pulses the terminal is repainted.
+ * Rules:
+ * - Nothing requested: no work; after {@link #IDLE_PULSES_BEFORE_STOP} idle pulses the timer stops
+ *   until the next request.
+ * - A request after a quiet pulse (a keystroke echo, the end of a burst): rendered on the next pulse.
+ * - Sustained output (new requests on consecutive pulses): rendered at most {@code maxFps} times per second.
+ * Notes:
+ * - {@link #requestFrame()}, {@link #requestRepaint()} and {@link #markInput()} may be called from any thread;
+ *   the render callback runs on the FX thread.
+ * - Input-to-pixel latency runs from {@link #markInput()} to the end of the first render that includes a
+ *   screen change requested after it (the echo, usually). Times are reported in milliseconds.
+ */
+public final class FrameScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrameScheduler.class);
+
+    public static final int DEFAULT_MAX_FPS = 30;
+    private static final int IDLE_PULSES_BEFORE_STOP = 4;
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    private final Runnable render;
+    private final AnimationTimer timer;
+    private final AtomicBoolean timerRunning = new AtomicBoolean(false);
+    private volatile boolean stopped;
+
+    private volatile long minFrameNanos;
+
+    // Bumped by every request; compared on each pulse
+    private final AtomicLong requests = new AtomicLong(1);
+    // FX thread only
+    private long renderedRequests;
+    private long requestsAtLastPulse;
+    private long lastRenderNanos = Long.MIN_VALUE / 2;
+    private int idlePulses;
+
+    // Input-to-pixel measurement
+    private final AtomicLong inputAtNanos = new AtomicLong();
+    private volatile boolean echoRequested;
+    private volatile double lastLatencyMillis = -1;
+    private volatile double averageLatencyMillis = -1;
+    private volatile double maxLatencyMillis = -1;
+
+    public FrameScheduler(Runnable render, int maxFps) {
+        this.render = render;
+        setMaxFps(maxFps);
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse(now);
+            }
+        };
+    }
+
+    /** Frame cap during sustained output; values below 1 are treated as 1. */
+    public void setMaxFps(int maxFps) {
+        this.minFrameNanos = 1_000_000_000L / Math.max(1, maxFps);
+    }
+
+    public int getMaxFps() {
+        return (int) (1_000_000_000L / minFrameNanos);
+    }
+
+    public void start() {
+        stopped = false;
+        wake();
+    }
+
+    public void stop() {
+        stopped = true;
+        Runnable halt = () -> {
+            timer.stop();
+            timerRunning.set(false);
+        };
+        if (Platform.isFxApplicationThread()) halt.run(); else Platform.runLater(halt);
+    }
+
+    /** New screen content is available (e.g. a commit of the emulator). */
+    public void requestFrame() {
+        if (inputAtNanos.get() != 0) echoRequested = true;
+        requestRepaint();
+    }
+
+    /** Only the view changed (cursor blink, selection); repaint without counting it as an echo. */
+    public void requestRepaint() {
+        requests.incrementAndGet();
+        wake();
+    }
+
+    /** User input was sent to the host; starts a latency measurement unless one is running. */
+    public void markInput() {
+        inputAtNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    public double getLastInputLatencyMillis() {
+        return lastLatencyMillis;
+    }
+
+    /** Smoothed input-to-pixel latency, or -1 before the first measurement. */
+    public double getAverageInputLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    public double getMaxInputLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    // ---- FX thread ----
+
+    private void wake() {
+        if (stopped || !timerRunning.compareAndSet(false, true)) return;
+        if (Platform.isFxApplicationThread()) timer.start(); else Platform.runLater(timer::start);
+    }
+
+    private void onPulse(long now) {
+        long req = requests.get();
+        if (req == renderedRequests) {
+            if (++idlePulses >= IDLE_PULSES_BEFORE_STOP) {
+                timer.stop();
+                timerRunning.set(false);
+                if (requests.get() != renderedRequests) wake();    // request raced with the stop
+            }
+            return;
+        }
+        idlePulses = 0;
+
+        boolean quiet = req == requestsAtLastPulse;          // nothing new since the previous pulse
+        requestsAtLastPulse = req;
+        if (!quiet && now - lastRenderNanos < minFrameNanos) return;
+
+        boolean measure = echoRequested;
+        renderedRequests = req;
+        try {
+            render.run();
+        } catch (Exception e) {
+            logger.warn("Bildaufbau fehlgeschlagen: {}", e.toString());
+        }
+        lastRenderNanos = now;
+        if (measure) recordLatency();
+    }
+
+    private void recordLatency() {
+        long start = inputAtNanos.getAndSet(0);
+        echoRequested = false;
+        if (start == 0) return;
+        double ms = (System.nanoTime() - start) / 1_000_000.0;
+        lastLatencyMillis = ms;
+        averageLatencyMillis = averageLatencyMillis < 0 ? ms
+                : averageLatencyMillis + LATENCY_SMOOTHING * (ms - averageLatencyMillis);
+        if (ms > maxLatencyMillis) maxLatencyMillis = ms;
+        if (logger.isDebugEnabled()) {
+            logger.debug("Eingabe-Latenz bis Bild: {} ms (Mittel {} ms)",
+                    String.format("%.1f", ms), String.format("%.1f", averageLatencyMillis));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.msv.vt100.ui;
+
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import javafx.scene.transform.Transform;
+import org.msv.vt100.core.Cell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-rasterized glyphs, drawn with {@code drawImage} instead of {@code fillText}.
+ * Model:
+ * - One slot per (code point, bold, foreground palette index), rasterized on first use.
+ * - A slot is one cell high and {@code 1 + 2 * OVERHANG_CELLS} cells wide with the glyph centered in the
+ *   middle cell, so glyphs wider than their cell still reach into the neighbours (the caller clips).
+ * - Slots live in a few large images (pages) so consecutive draws share a texture.
+ * - Slots are rasterized in device pixels (cell size times the window's render scale), so text stays
+ *   sharp on scaled displays; drawing maps them back onto the logical cell.
+ * Notes:
+ * - Rebuilt from scratch when the font, the cell size or the render scale changes; cleared when
+ *   {@link #MAX_PAGES} is full.
+ * - FX thread only (rasterizing uses {@link Canvas#snapshot}).
+ */
+final class GlyphAtlas {
+    static final int OVERHANG_CELLS = 1;
+
+    private static final int SLOTS_PER_ROW = 16;
+    private static final int SLOT_ROWS = 16;
+    private static final int SLOTS_PER_PAGE = SLOTS_PER_ROW * SLOT_ROWS;
+    private static final int MAX_PAGES = 16;
+    private static final int FG_COUNT = 17;                 // palette indices 0..16
+    private static final int NO_SLOT = -1;
+
+    private final FontManager fonts;
+    private final StyleRegistry styles;
+
+    private Font normalFont;
+    private Font boldFont;
+    private int cellW;                                      // logical pixels
+    private int cellH;
+    private int slotW;
+    private double scale;
+    private int slotDevW;                                   // device pixels
+    private int slotDevH;
+
+    // ASCII slots indexed by [bold][fg][code point]; everything else goes through the map.
+    private final int[] asciiSlots = new int[2 * FG_COUNT * 128];
+    private final Map<Long, Integer> otherSlots = new HashMap<>();
+    private final List<WritableImage> pages = new ArrayList<>();
+    private int nextSlot;
+
+    private Canvas scratch;
+    private final SnapshotParameters snapshotParams = new SnapshotParameters();
+
+    GlyphAtlas(FontManager fonts, StyleRegistry styles) {
+        this.fonts = fonts;
+        this.styles = styles;
+        snapshotParams.setFill(Color.TRANSPARENT);
+        Arrays.fill(asciiSlots, NO_SLOT);
+    }
+
+    /**
+     * Drops all slots if the font, cell size or render scale (device pixels per logical pixel) differs
+     * from what they were rasterized with.
+     */
+    void ensureCurrent(double cellWidth, double cellHeight, double renderScale) {
+        int w = (int) Math.ceil(cellWidth);
+        int h = (int) Math.ceil(cellHeight);
+        double s = renderScale > 0 ? renderScale : 1.0;
+        if (fonts.normal() == normalFont && fonts.bold() == boldFont && w == cellW && h == cellH && s == scale) return;
+        normalFont = fonts.normal();
+        boldFont = fonts.bold();
+        cellW = w;
+        cellH = h;
+        scale = s;
+        slotW = w * (1 + 2 * OVERHANG_CELLS);
+        slotDevW = (int) Math.ceil(slotW * s);
+        slotDevH = (int) Math.ceil(h * s);
+        scratch = new Canvas(slotW, h);
+        snapshotParams.setTransform(Transform.scale(s, s));
+        clear();
+    }
+
+    /** Draws the glyph for {@code codePoint} into the cell whose top-left corner is ({@code x}, {@code y}). */
+    void draw(GraphicsContext gc, int codePoint, boolean bold, short fgIdx, double x, double y) {
+        if (fgIdx < 0 || fgIdx >= FG_COUNT || cellW <= 0 || cellH <= 0) return;
+        int slot = slotFor(codePoint, bold, fgIdx);
+        WritableImage page = pages.get(slot / SLOTS_PER_PAGE);
+        int s = slot % SLOTS_PER_PAGE;
+        double sx = (s % SLOTS_PER_ROW) * slotDevW;
+        double sy = (s / SLOTS_PER_ROW) * slotDevH;
+        gc.drawImage(page, sx, sy, slotDevW, slotDevH, x - OVERHANG_CELLS * cellW, y, slotW, cellH);
+    }
+
+    private int slotFor(int codePoint, boolean bold, short fgIdx) {
+        if (codePoint < 128) {
+            int i = ((bold ? FG_COUNT : 0) + fgIdx) * 128 + codePoint;
+            int slot = asciiSlots[i];
+            if (slot == NO_SLOT) {
+                slot = rasterize(codePoint, bold, fgIdx);
+                asciiSlots[i] = slot;
+            }
+            return slot;
+        }
+        long key = ((long) codePoint << 6) | ((long) fgIdx << 1) | (bold ? 1 : 0);
+        Integer slot = otherSlots.get(key);
+        if (slot == null) {
+            slot = rasterize(codePoint, bold, fgIdx);
+            otherSlots.put(key, slot);
+        }
+        return slot;
+    }
+
+    private int rasterize(int codePoint, boolean bold, short fgIdx) {
+        if (nextSlot == MAX_PAGES * SLOTS_PER_PAGE) {
+            clear();            // rare: more distinct glyphs than fit, start over
+        }
+        int slot = nextSlot++;
+        int pageIdx = slot / SLOTS_PER_PAGE;
+        if (pageIdx == pages.size()) {
+            pages.add(new WritableImage(SLOTS_PER_ROW * slotDevW, SLOT_ROWS * slotDevH));
+        }
+
+        GraphicsContext g = scratch.getGraphicsContext2D();
+        g.clearRect(0, 0, slotW, cellH);
+        g.setFont(bold ? boldFont : normalFont);
+        g.setFill(styles.paletteColor(fgIdx));
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.CENTER);
+        g.fillText(Cell.glyph(codePoint), slotW / 2.0, cellH / 2.0);
+        WritableImage glyph = scratch.snapshot(snapshotParams, null);    // device pixels (see ensureCurrent)
+
+        int s = slot % SLOTS_PER_PAGE;
+        int dx = (s % SLOTS_PER_ROW) * slotDevW;
+        int dy = (s / SLOTS_PER_ROW) * slotDevH;
+        int w = Math.min(slotDevW, (int) glyph.getWidth());
+        int h = Math.min(slotDevH, (int) glyph.getHeight());
+        pages.get(pageIdx).getPixelWriter().setPixels(dx, dy, w, h, glyph.getPixelReader(), 0, 0);
+        return slot;
+    }
+
+    private void clear() {
+        Arrays.fill(asciiSlots, NO_SLOT);
+        otherSlots.clear();
+        pages.clear();
+        nextSlot = 0;
+    }
+}
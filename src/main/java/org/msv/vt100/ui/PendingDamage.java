@@ -0,0 +1,111 @@
+package org.msv.vt100.ui;
+
+import org.msv.vt100.core.ScreenBuffer;
+import org.msv.vt100.core.ScreenChangeEvent;
+import org.msv.vt100.core.ScreenChangeListener;
+import org.msv.vt100.core.ScreenSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * Damage of all commits since the canvas last took a snapshot, so versions the FX thread skips
+ * are still repainted cell-exactly instead of being rediscovered by comparing rows.
+ * Model:
+ * - Per screen row the union of the damage spans of every commit since the last {@link #drain}.
+ * - {@link #drain} hands out the newest snapshot together with its spans in one step; the spans are
+ *   relative to the snapshot handed out before.
+ * - A geometry change makes every row damaged.
+ * - The scroll hints of those commits are merged the way {@link ScreenBuffer} merges scrolls within one
+ *   commit: same region and direction add up the shifts, anything else (another region, the other
+ *   direction, a page or geometry change) drops the hint until the next drain. {@link #drainedScrollHint}
+ *   is the result for the snapshot handed out last.
+ * Notes:
+ * - Commits without a hint leave the merged hint alone; the canvas compares the moved rows with the new
+ *   ones after a blit, so a scroll that left no hint only costs repaints.
+ * - Filled on the emulator thread ({@link #onScreenChange}), drained on the FX thread; both synchronized.
+ */
+final class PendingDamage implements ScreenChangeListener {
+    private ScreenSnapshot latest;
+    private int[] from = new int[0];
+    private int[] to = new int[0];
+
+    private int hintTop = -1;                               // -1: no scroll since the last drain
+    private int hintBottom;
+    private int hintShift;
+    private boolean hintBroken;
+    private ScreenBuffer.ScrollHint drainedHint;            // FX thread only
+
+    @Override
+    public synchronized void onScreenChange(ScreenChangeEvent event) {
+        ScreenSnapshot next = event.getSnapshot();
+        int rows = next.getRows();
+        if (from.length != rows) {
+            from = new int[rows];
+            to = new int[rows];
+            Arrays.fill(from, Integer.MAX_VALUE);
+            Arrays.fill(to, -1);
+        }
+        if (event.isGeometryChanged()) {
+            Arrays.fill(from, 0);
+            Arrays.fill(to, next.getColumns() - 1);
+        } else {
+            for (int r = event.nextChangedRow(0); r >= 0; r = event.nextChangedRow(r + 1)) {
+                from[r] = Math.min(from[r], next.getDamageFrom(r));
+                to[r] = Math.max(to[r], next.getDamageTo(r));
+            }
+        }
+        if (event.isGeometryChanged() || event.isPageChanged()) {
+            hintBroken = true;
+        } else {
+            mergeScrollHint(next.getScrollHint());
+        }
+        latest = next;
+    }
+
+    /**
+     * Returns the newest snapshot and copies its accumulated spans into {@code outFrom}/{@code outTo}
+     * (clean rows get from > to; rows beyond the arrays are dropped), then starts accumulating afresh.
+     * Returns null if nothing was committed since the last call. The merged scroll hint is available
+     * from {@link #drainedScrollHint} afterwards.
+     */
+    synchronized ScreenSnapshot drain(int[] outFrom, int[] outTo) {
+        ScreenSnapshot s = latest;
+        drainedHint = null;
+        if (s == null) return null;
+        latest = null;
+        if (!hintBroken && hintTop >= 0 && Math.abs(hintShift) <= hintBottom - hintTop) {
+            drainedHint = new ScreenBuffer.ScrollHint(hintTop, hintBottom, hintShift);
+        }
+        hintTop = -1;
+        hintShift = 0;
+        hintBroken = false;
+        int n = Math.min(from.length, Math.min(outFrom.length, outTo.length));
+        System.arraycopy(from, 0, outFrom, 0, n);
+        System.arraycopy(to, 0, outTo, 0, n);
+        Arrays.fill(from, Integer.MAX_VALUE);
+        Arrays.fill(to, -1);
+        return s;
+    }
+
+    /**
+     * Scroll of all commits up to the snapshot of the last {@link #drain}, relative to the snapshot
+     * drained before; null if there was none or it could not be merged.
+     */
+    ScreenBuffer.ScrollHint drainedScrollHint() {
+        return drainedHint;
+    }
+
+    private void mergeScrollHint(ScreenBuffer.ScrollHint hint) {
+        if (hint == null || hintBroken) return;
+        if (hintTop < 0) {
+            hintTop = hint.top();
+            hintBottom = hint.bottom();
+            hintShift = hint.shift();
+        } else if (hintTop == hint.top() && hintBottom == hint.bottom()
+                && Integer.signum(hintShift) == Integer.signum(hint.shift())) {
+            hintShift += hint.shift();
+        } else {
+            hintBroken = true;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.msv.vt100.ui;
+
+import javafx.scene.image.Image;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rendered row bitmaps for rows that keep coming back (host menus, start pages).
+ * Model:
+ * - Keyed by a 64-bit hash of the packed cells; a hit is confirmed by comparing the cells, so a
+ *   hash collision only costs a render. All entries belong to one cell size and render scale (the
+ *   images are in device pixels); another size or scale clears them.
+ * - A row is captured the second time it is rendered in full, so streaming output does not pay
+ *   for pixels that never return. Uniform rows (one cell repeated) are cheap to render and skipped.
+ * - Both the captured rows and the "seen once" hashes are bounded LRUs.
+ * Notes:
+ * - FX thread only; images come from the canvas (see TerminalCanvas#captureRows).
+ */
+final class RowImageCache {
+    private static final int MAX_IMAGES = 128;
+    private static final int MAX_SEEN = 512;
+
+    private record Entry(long[] row, Image image) {
+    }
+
+    private final Map<Long, Entry> images = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > MAX_IMAGES;
+        }
+    };
+    private final Map<Long, Boolean> seen = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_SEEN;
+        }
+    };
+
+    private double cellWidth;
+    private double cellHeight;
+    private int columns;
+    private double renderScale;
+
+    /** Drops everything if the cell size, row width or render scale differs from the cached rows. */
+    void ensureCurrent(double cellWidth, double cellHeight, int columns, double renderScale) {
+        if (cellWidth == this.cellWidth && cellHeight == this.cellHeight && columns == this.columns
+                && renderScale == this.renderScale) return;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.columns = columns;
+        this.renderScale = renderScale;
+        images.clear();
+        seen.clear();
+    }
+
+    static long hash(long[] row) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (long v : row) {
+            h = (h ^ v) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        return h;
+    }
+
+    /** Cached image of exactly these cells, or null. */
+    Image lookup(long[] row, long hash) {
+        Entry e = images.get(hash);
+        if (e == null) return null;
+        return Arrays.equals(e.row, row) ? e.image : null;
+    }
+
+    /** Called for a row just rendered in full; true if it has been seen before and should be captured. */
+    boolean shouldCapture(long[] row, long hash) {
+        if (isUniform(row)) return false;
+        return seen.put(hash, Boolean.TRUE) != null;
+    }
+
+    /** Stores the image of {@code row}; the cells are copied (history rows are reused buffers). */
+    void put(long[] row, long hash, Image image) {
+        images.put(hash, new Entry(row.clone(), image));
+    }
+
+    private static boolean isUniform(long[] row) {
+        for (int i = 1; i < row.length; i++) {
+            if (row[i] != row[0]) return false;
+        }
+        return true;
+    }
+}
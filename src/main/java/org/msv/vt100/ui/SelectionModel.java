@@ -1,6 +1,6 @@
 package org.msv.vt100.ui;
 
-import org.msv.vt100.core.ScreenBuffer;
+import org.msv.vt100.core.Cell;
 
 final class SelectionModel {
     private Integer selectionStartRow, selectionStartCol;
@@ -76,23 +76,23 @@ final class SelectionModel {
         dirty.markAllDirty();
     }
 
+    /** {@code rows} are the displayed rows as packed cells (see {@link Cell#pack(int, int)}). */
     void selectWordAt(double x, double y, double cellWidth, double cellHeight,
-                      ScreenBuffer screenBuffer, DirtyTracker dirty) {
+                      long[][] rows, DirtyTracker dirty) {
         clearSelectionInternal(dirty);
         int col = (int) (x / cellWidth);
         int row = (int) (y / cellHeight);
-        int cols = screenBuffer.getColumns();
-        if (row < 0 || row >= screenBuffer.getRows()) return;
+        if (row < 0 || row >= rows.length) return;
+        long[] line = rows[row];
+        int cols = line.length;
         col = Math.max(0, Math.min(cols - 1, col));
         int left = col, right = col;
         while (left > 0) {
-            String ch = screenBuffer.getVisibleCell(row, left - 1).character();
-            if (ch == null || ch.isBlank()) break;
+            if (Character.isWhitespace(Cell.codePointOf(line[left - 1]))) break;
             left--;
         }
         while (right < cols - 1) {
-            String ch = screenBuffer.getVisibleCell(row, right + 1).character();
-            if (ch == null || ch.isBlank()) break;
+            if (Character.isWhitespace(Cell.codePointOf(line[right + 1]))) break;
             right++;
         }
         selectionStartRow = row; selectionEndRow = row;
@@ -101,27 +101,27 @@ final class SelectionModel {
         dirty.markRowDirty(row);
     }
 
-    void selectRowAt(double y, double cellHeight, ScreenBuffer screenBuffer, DirtyTracker dirty) {
+    void selectRowAt(double y, double cellHeight, int rows, int cols, DirtyTracker dirty) {
         clearSelectionInternal(dirty);
         int row = (int) (y / cellHeight);
-        if (row < 0 || row >= screenBuffer.getRows()) return;
+        if (row < 0 || row >= rows) return;
         selectionStartRow = row; selectionEndRow = row;
-        selectionStartCol = 0; selectionEndCol = screenBuffer.getColumns() - 1;
+        selectionStartCol = 0; selectionEndCol = cols - 1;
         isSelecting = false;
         dirty.markRowDirty(row);
     }
 
-    String getSelectedText(ScreenBuffer screenBuffer) {
+    String getSelectedText(long[][] rows) {
         if (selectionStartRow == null || selectionEndRow == null) return "";
-        int sr = Math.min(selectionStartRow, selectionEndRow);
-        int er = Math.max(selectionStartRow, selectionEndRow);
-        int sc = Math.min(selectionStartCol, selectionEndCol);
+        int sr = Math.max(0, Math.min(selectionStartRow, selectionEndRow));
+        int er = Math.min(rows.length - 1, Math.max(selectionStartRow, selectionEndRow));
+        int sc = Math.max(0, Math.min(selectionStartCol, selectionEndCol));
         int ec = Math.max(selectionStartCol, selectionEndCol);
         StringBuilder sb = new StringBuilder();
         for (int r = sr; r <= er; r++) {
-            for (int c = sc; c <= ec; c++) {
-                String s = screenBuffer.getVisibleCell(r, c).character();
-                sb.append(s == null ? ' ' : s);
+            long[] line = rows[r];
+            for (int c = sc; c <= ec && c < line.length; c++) {
+                sb.appendCodePoint(Cell.codePointOf(line[c]));
             }
             if (r < er) sb.append('\n');
         }
@@ -1,90 +1,106 @@
 package org.msv.vt100.ui;
 
 import javafx.scene.paint.Color;
-import org.msv.vt100.util.StyleUtils;
+import org.msv.vt100.core.Attributes;
+
+/**
+ * Resolves cell attribute words (see {@link Attributes}) into render keys.
+ * Model:
+ * - One precomputed {@link StyleKey} per combination of foreground, background and SGR flags, in a dense
+ *   array indexed by those attribute bits; lookups in the render loop are plain array indexing.
+ *   Line attributes do not affect the style and are ignored.
+ * Semantics:
+ * - Palette indices are the attribute color codes 1..16; -1 means transparent.
+ * - Default foreground is white, default background is transparent.
+ * - Reverse video swaps colors; a transparent background becomes black text.
+ * - Conceal makes the text transparent.
+ * Notes:
+ * - Fonts are not part of the key: glyphs are rasterized per font by the {@link GlyphAtlas}.
+ */
+final class StyleRegistry {
 
-import java.util.HashMap;
-import java.util.Map;
+    private static final Color[] PALETTE = new Color[Attributes.COLOR_COUNT];
+    static {
+        PALETTE[Attributes.COLOR_DEFAULT] = Color.WHITE;
+        String[] normal = {"black", "red", "green", "yellow", "blue", "magenta", "cyan", "white"};
+        String[] bright = {"#808080", "#ff5555", "#55ff55", "#ffff55", "#5c5cff", "#ff55ff", "#55ffff", "#ffffff"};
+        for (int i = 0; i < 8; i++) {
+            PALETTE[Attributes.COLOR_BLACK + i] = Color.web(normal[i]);
+            PALETTE[Attributes.COLOR_BRIGHT_BLACK + i] = Color.web(bright[i]);
+        }
+    }
 
-final class StyleRegistry {
-    private final Map<String, Short> paletteIndexByCss = new HashMap<>();
-    private final java.util.List<Color> palette = new java.util.ArrayList<>();
-    private final Map<String, StyleKey> styleKeyCache = new HashMap<>();
-    private final Map<String, Integer> styleIdCache = new HashMap<>();
-    private final Map<Integer, StyleKey> idToStyleKey = new HashMap<>();
-
-    short colorIndexFor(String css) {
-        if (css == null || css.isBlank()) return colorIndexFor("white");
-        String key = css.trim().toLowerCase();
-        if ("transparent".equals(key)) return -1;
-        Short idx = paletteIndexByCss.get(key);
-        if (idx != null) return idx;
-        Color c = Color.web(key);
-        short newIdx = (short) palette.size();
-        palette.add(c);
-        paletteIndexByCss.put(key, newIdx);
-        return newIdx;
+    private static final int COLORS = Attributes.COLOR_COUNT;
+    private static final int FLAG_SHIFT = Integer.numberOfTrailingZeros(Attributes.BOLD);
+    private static final int FLAG_COMBINATIONS = 32;                 // bold, underline, blink, reverse, conceal
+
+    private final StyleKey[] byAttr = new StyleKey[FLAG_COMBINATIONS * COLORS * COLORS];
+
+    StyleRegistry() {
+        for (int flags = 0; flags < FLAG_COMBINATIONS; flags++) {
+            for (int bg = 0; bg < COLORS; bg++) {
+                for (int fg = 0; fg < COLORS; fg++) {
+                    int attr = Attributes.of(fg, bg, flags << FLAG_SHIFT);
+                    byAttr[index(attr)] = resolve(attr);
+                }
+            }
+        }
     }
 
     Color paletteColor(short idx) {
-        if (idx < 0 || idx >= palette.size()) return Color.TRANSPARENT;
-        return palette.get(idx);
+        if (idx < 0 || idx >= PALETTE.length) return Color.TRANSPARENT;
+        return PALETTE[idx];
     }
 
-    StyleKey styleKeyFor(String rawStyle) {
-        String canon = StyleUtils.canonicalize(rawStyle == null ? "" : rawStyle);
-        StyleKey cached = styleKeyCache.get(canon);
-        if (cached != null) return cached;
-
-        Map<String, String> m = StyleUtils.parseStyleString(canon);
-        String fill = m.getOrDefault("fill", "white");
-        String bg = m.getOrDefault("background", "transparent");
-        boolean underline =
-                "true".equalsIgnoreCase(m.getOrDefault("underline", "false")) ||
-                        "underline".equalsIgnoreCase(
-                                m.getOrDefault("text-decoration", "").trim()
-                        );
+    StyleKey styleKeyFor(int attr) {
+        return byAttr[index(attr)];
+    }
 
-        boolean bold = "bold".equalsIgnoreCase(m.getOrDefault("font-weight", "normal"));
+    private static int index(int attr) {
+        int fg = Attributes.foreground(attr);
+        int bg = Attributes.background(attr);
+        if (fg >= COLORS) fg = Attributes.COLOR_DEFAULT;
+        if (bg >= COLORS) bg = Attributes.COLOR_DEFAULT;
+        int flags = (attr >>> FLAG_SHIFT) & (FLAG_COMBINATIONS - 1);
+        return (flags * COLORS + bg) * COLORS + fg;
+    }
 
-        short fgIdx = colorIndexFor(fill);
-        short bgIdx = colorIndexFor(bg);
-        byte flags = 0;
-        if (underline) flags |= 1;
-        if (bold) flags |= 2;
+    private StyleKey resolve(int attr) {
+        int fg = Attributes.foreground(attr);
+        int bg = Attributes.background(attr);
+        short fgIdx = (short) (fg == Attributes.COLOR_DEFAULT ? Attributes.COLOR_WHITE : fg);
+        short bgIdx = (short) (bg == Attributes.COLOR_DEFAULT ? -1 : bg);
 
-        StyleKey sk = new StyleKey(fgIdx, bgIdx, flags);
-        styleKeyCache.put(canon, sk);
-        return sk;
-    }
+        if (Attributes.has(attr, Attributes.REVERSE)) {
+            short swappedFg = bgIdx < 0 ? (short) Attributes.COLOR_BLACK : bgIdx;
+            bgIdx = fgIdx;
+            fgIdx = swappedFg;
+        }
+        if (Attributes.has(attr, Attributes.CONCEAL)) {
+            fgIdx = -1;
+        }
 
-    int styleIdFor(String rawStyle) {
-        String canon = StyleUtils.canonicalize(rawStyle == null ? "" : rawStyle);
-        Integer id = styleIdCache.get(canon);
-        if (id != null) return id;
+        byte flags = 0;
+        if (Attributes.has(attr, Attributes.UNDERLINE)) flags |= 1;
+        if (Attributes.has(attr, Attributes.BOLD)) flags |= 2;
 
-        StyleKey sk = styleKeyFor(canon);
-        int newId = styleIdCache.size() + 1;
-        styleIdCache.put(canon, newId);
-        idToStyleKey.put(newId, sk);
-        return newId;
+        return new StyleKey(fgIdx, bgIdx, flags, paletteColor(fgIdx), paletteColor(bgIdx));
     }
 
     static final class StyleKey {
         final short fgIdx;
         final short bgIdx;
         final byte flags;
-        final int hash;
+        /** Ready-made paints; transparent where the index is -1. */
+        final Color fg;
+        final Color bg;
 
-        StyleKey(short fgIdx, short bgIdx, byte flags) {
+        StyleKey(short fgIdx, short bgIdx, byte flags, Color fg, Color bg) {
             this.fgIdx = fgIdx;
             this.bgIdx = bgIdx;
             this.flags = flags;
-            int h = 17;
-            h = 31 * h + fgIdx;
-            h = 31 * h + bgIdx;
-            h = 31 * h + flags;
-            this.hash = h;
+            this.fg = fg;
+            this.bg = bg;
         }
 
         boolean isUnderline() { return (flags & 1) != 0; }
@@ -93,12 +109,5 @@ final class StyleRegistry {
         boolean sameTextAttrs(StyleKey other) {
             return other != null && this.fgIdx == other.fgIdx && this.flags == other.flags;
         }
-
-        @Override public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof StyleKey sk)) return false;
-            return fgIdx == sk.fgIdx && bgIdx == sk.bgIdx && flags == sk.flags;
-        }
-        @Override public int hashCode() { return hash; }
     }
 }
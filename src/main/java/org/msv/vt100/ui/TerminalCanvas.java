@@ -2,34 +2,67 @@ package org.msv.vt100.ui;
 
 import javafx.application.Platform;
 import javafx.beans.value.ObservableValue;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
 import javafx.scene.input.*;
 import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
 import javafx.scene.text.TextAlignment;
-import org.msv.vt100.core.Cell;
+import javafx.scene.transform.Transform;
 import org.msv.vt100.core.ScreenBuffer;
+import org.msv.vt100.core.ScreenSnapshot;
+import org.msv.vt100.core.ScrollbackBuffer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Objects;
 
-public class TerminalCanvas extends Canvas {
+public final class TerminalCanvas extends Canvas {
+
+    private static final int WHEEL_LINES = 3;
+    // Extra cells repainted on each side of a damaged span, for glyphs wider than their cell.
+    private static final int OVERHANG_CELLS = GlyphAtlas.OVERHANG_CELLS;
 
     private final ScreenBuffer screenBuffer;
 
     private double cellWidth;
     private double cellHeight;
 
+    // Geometry of the snapshot on screen; follows resizes of the buffer (see refreshViewRows()).
+    private int rows;
+    private int cols;
+
     public boolean cursorVisible = true;
     private int cursorRow = -1, cursorCol = -1;
     private int prevCursorRow = -1, prevCursorCol = -1;
     private boolean prevCursorVisible = false;
 
-    private String[][] lastChars;
-    private int[][] lastStyleIds;
+    // Row arrays as last seen by updateScreen; published rows are immutable, so identity means "unchanged".
+    private long[][] shownRows;
+    private long shownVersion = -1;
+
+    // Damage of all commits between the previous and the current view snapshot (see PendingDamage).
+    private final PendingDamage pendingDamage = new PendingDamage();
+    private int[] damageFrom;
+    private int[] damageTo;
+    private long damageBaseVersion = -1;
+    private ScreenBuffer.ScrollHint damageScrollHint;
+    private int shownViewportOffset;
+
+    // Rows currently shown: history lines above the screen while scrolled back, then screen rows.
+    private ScreenSnapshot viewSnapshot;
+    private long[][] viewRows;
+    private long[][] historyRows;
+    private int viewportOffset;
+    private long viewHistoryEnd;
 
     private final DirtyTracker dirty;
     private final SelectionModel selection;
@@ -41,18 +74,35 @@ public class TerminalCanvas extends Canvas {
 
     private double[] rowEdges;
 
+    // Reused for scroll blits and row captures (see snapshotBand()).
+    private final SnapshotParameters blitParams = new SnapshotParameters();
+    private WritableImage blitImage;
+    private WritableImage captureImage;
+
+    // Rows rendered in full this frame that the row cache wants (display row, content hash).
+    private final RowImageCache rowCache = new RowImageCache();
+    private int[] captureRows = new int[0];
+    private long[] captureHashes = new long[0];
+    private int captureCount;
+
     public TerminalCanvas(ScreenBuffer screenBuffer, double width, double height) {
         super(width, height);
         this.screenBuffer = Objects.requireNonNull(screenBuffer, "screenBuffer");
         this.styles = new StyleRegistry();
         this.fonts = new FontManager();
         this.selection = new SelectionModel();
-        this.dirty = new DirtyTracker(screenBuffer.getRows());
-        initBuffers();
+        screenBuffer.addChangeListener(pendingDamage);
+        ScreenSnapshot initial = screenBuffer.snapshot();
+        this.viewSnapshot = initial;
+        this.dirty = new DirtyTracker(initial.getRows(), initial.getColumns());
+        initBuffers(initial.getRows(), initial.getColumns());
+        refreshViewRows();
         recalcCellDimensions(true);
         recomputeRowEdges();
         this.renderer = new TerminalRenderer(styles, selection, fonts);
+        blitParams.setFill(Color.TRANSPARENT);                 // unpainted cells stay see-through
         initMouseHandlers();
+        initScrollHandlers();
         initKeyHandlers();
         initContextMenu();
         initSceneMouseFilter();
@@ -77,29 +127,20 @@ public class TerminalCanvas extends Canvas {
         });
     }
 
-    private void initBuffers() {
-        int rows = screenBuffer.getRows();
-        int cols = screenBuffer.getColumns();
-        lastChars = new String[rows][cols];
-        lastStyleIds = new int[rows][cols];
+    private void initBuffers(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        shownRows = new long[rows][];
+        shownVersion = -1;
+        damageFrom = new int[rows];
+        damageTo = new int[rows];
+        viewRows = new long[rows][];
+        historyRows = new long[rows][cols];
+        dirty.ensureSize(rows, cols);
         dirty.markAllDirty();
     }
 
-    private void ensureBuffersSize() {
-        int rows = screenBuffer.getRows();
-        int cols = screenBuffer.getColumns();
-        if (lastChars.length != rows || lastChars[0].length != cols) {
-            lastChars = new String[rows][cols];
-            lastStyleIds = new int[rows][cols];
-            dirty.ensureSize(rows);
-            dirty.markAllDirty();
-            recomputeRowEdges();
-        }
-    }
-
     private void recalcCellDimensions(boolean forceDirty) {
-        int cols = screenBuffer.getColumns();
-        int rows = screenBuffer.getRows();
         if (cols <= 0 || rows <= 0) return;
 
         double newCW = Math.floor(getWidth() / cols);
@@ -111,7 +152,7 @@ public class TerminalCanvas extends Canvas {
         cellHeight = newCH;
 
         if (sizeChanged || forceDirty) {
-            if (fonts.updateForCellHeight(cellHeight)) {
+            if (fonts.updateForCellSize(cellWidth, cellHeight)) {
                 dirty.markAllDirty();
             }
         }
@@ -123,7 +164,6 @@ public class TerminalCanvas extends Canvas {
     }
 
     private void recomputeRowEdges() {
-        int rows = screenBuffer.getRows();
         if (rows <= 0) return;
         if (rowEdges == null || rowEdges.length != rows + 1) {
             rowEdges = new double[rows + 1];
@@ -134,10 +174,221 @@ public class TerminalCanvas extends Canvas {
         }
     }
 
-    private void markRowDirty(int r) {
-        dirty.markRowDirty(r);
-        if (r - 1 >= 0) dirty.markRowDirty(r - 1);
-        if (r + 1 < screenBuffer.getRows()) dirty.markRowDirty(r + 1);
+    /**
+     * Fills {@link #viewRows} for this frame from the newest snapshot and takes its accumulated damage.
+     * While scrolled back, the offset follows new history lines so the same lines stay in view.
+     * A snapshot with another geometry reallocates the view and recomputes the cell size.
+     */
+    private void refreshViewRows() {
+        ScrollbackBuffer history = screenBuffer.getScrollback();
+        ScreenSnapshot snapshot = pendingDamage.drain(damageFrom, damageTo);
+        if (snapshot != null) {
+            damageBaseVersion = viewSnapshot.getVersion();
+            damageScrollHint = pendingDamage.drainedScrollHint();
+        } else {
+            snapshot = viewSnapshot;                     // nothing committed; rows keep their identity
+            damageBaseVersion = -1;                      // the spans in hand are already consumed
+            damageScrollHint = null;
+        }
+        if (snapshot.getRows() != rows || snapshot.getColumns() != cols) {
+            initBuffers(snapshot.getRows(), snapshot.getColumns());
+            recalcCellDimensions(true);
+            recomputeRowEdges();
+        }
+        long historyEnd = snapshot.getHistoryLines();
+        int offset = viewportOffset;
+        if (offset > 0) {
+            offset = (int) Math.min(Integer.MAX_VALUE, offset + historyEnd - viewHistoryEnd);
+        }
+        offset = clampViewportOffset(offset, historyEnd);
+        if (offset != viewportOffset || (offset > 0 && historyEnd != viewHistoryEnd)) {
+            viewportOffset = offset;
+            dirty.markAllDirty();
+        }
+        viewHistoryEnd = historyEnd;
+        viewSnapshot = snapshot;
+
+        for (int r = 0; r < rows; r++) {
+            if (r < offset) {
+                history.readLine(historyEnd - offset + r, historyRows[r]);
+                viewRows[r] = historyRows[r];
+            } else {
+                viewRows[r] = snapshot.getRow(r - offset);
+            }
+        }
+    }
+
+    private int clampViewportOffset(int offset, long historyEnd) {
+        ScrollbackBuffer history = screenBuffer.getScrollback();
+        if (history == null || offset <= 0) return 0;
+        long available = historyEnd - history.getFirstLine();
+        return (int) Math.max(0, Math.min(offset, available));
+    }
+
+    /** Lines scrolled back into history; 0 shows the live screen. */
+    public int getViewportOffset() {
+        return viewportOffset;
+    }
+
+    /** Scrolls the view by {@code lines}: positive goes back into history, negative towards the live screen. */
+    public void scrollViewport(int lines) {
+        setViewportOffset(viewportOffset + lines);
+    }
+
+    public void setViewportOffset(int offset) {
+        long historyEnd = screenBuffer.snapshot().getHistoryLines();
+        int clamped = clampViewportOffset(offset, historyEnd);
+        if (clamped == viewportOffset) return;
+        viewportOffset = clamped;
+        viewHistoryEnd = historyEnd;
+        dirty.markAllDirty();
+        updateScreen();
+    }
+
+    private void markCursorDirty(int row, int col) {
+        dirty.markCellsDirty(row + viewportOffset, col, col);
+    }
+
+    /**
+     * Moves the pixels of a scrolled band by the scroll hint merged over all commits since the shown
+     * snapshot (see {@link PendingDamage}) instead of repainting it.
+     * The shown rows, pending damage and the old cursor overlay move along, so {@link #collectDamage(boolean)}
+     * afterwards only finds the exposed rows and whatever changed after the scroll.
+     * Only used for the live screen, damage taken relative to the shown snapshot and no selection
+     * (the selection overlay is fixed to display rows). Returns true if pixels were moved.
+     */
+    private boolean blitScroll(GraphicsContext gc) {
+        ScreenBuffer.ScrollHint hint = damageScrollHint;
+        if (hint == null || viewportOffset != 0 || shownViewportOffset != 0 || shownVersion < 0
+                || damageBaseVersion != shownVersion || selection.startRow() != null || getScene() == null) {
+            return false;
+        }
+        int top = hint.top();
+        int bottom = hint.bottom();
+        int shift = hint.shift();
+        int count = Math.abs(shift);
+        int moved = bottom - top + 1 - count;
+        if (bottom >= rows || moved <= 0) return false;
+
+        int srcTop = shift > 0 ? top + count : top;
+        int dstTop = shift > 0 ? top : top + count;
+        double sy = rowEdges[srcTop];
+        double dy = rowEdges[dstTop];
+        double w = getWidth();
+        double h = rowEdges[srcTop + moved] - sy;
+
+        double scale = renderScale();
+        blitImage = snapshotBand(sy, h, scale, blitImage);
+        gc.clearRect(0, dy, w, h);
+        gc.drawImage(blitImage, 0, 0, Math.ceil(w * scale), Math.ceil(h * scale), 0, dy, w, h);
+
+        System.arraycopy(shownRows, srcTop, shownRows, dstTop, moved);
+        int exposed = shift > 0 ? bottom - count + 1 : top;
+        Arrays.fill(shownRows, exposed, exposed + count, null);
+        dirty.shiftRows(top, bottom, shift);
+
+        if (prevCursorRow >= srcTop && prevCursorRow < srcTop + moved) {
+            markCursorDirty(prevCursorRow - shift, prevCursorCol);   // the old overlay moved with the pixels
+        }
+        return true;
+    }
+
+    private double renderScale() {
+        Scene scene = getScene();
+        return (scene != null && scene.getWindow() != null) ? scene.getWindow().getRenderScaleY() : 1.0;
+    }
+
+    /**
+     * Copies the canvas band {@code y..y+h} (full width) into {@code reuse}, or into a new image if that is
+     * missing or too small. Taken in device pixels so redrawn copies stay sharp on scaled displays.
+     */
+    private WritableImage snapshotBand(double y, double h, double scale, WritableImage reuse) {
+        Bounds src = localToParent(new BoundingBox(0, y, getWidth(), h));
+        blitParams.setTransform(Transform.scale(scale, scale));
+        blitParams.setViewport(new Rectangle2D(src.getMinX() * scale, src.getMinY() * scale,
+                src.getWidth() * scale, src.getHeight() * scale));
+        int iw = (int) Math.ceil(getWidth() * scale);
+        int ih = (int) Math.ceil(h * scale);
+        if (reuse == null || reuse.getWidth() < iw || reuse.getHeight() < ih) {
+            reuse = new WritableImage(iw, ih);
+        }
+        return snapshot(blitParams, reuse);
+    }
+
+    /** Queues display row {@code r} for {@link #captureRows()} at the end of the frame. */
+    private void queueCapture(int r, long hash) {
+        if (captureCount == captureRows.length) {
+            captureRows = Arrays.copyOf(captureRows, Math.max(8, captureCount * 2));
+            captureHashes = Arrays.copyOf(captureHashes, captureRows.length);
+        }
+        captureRows[captureCount] = r;
+        captureHashes[captureCount] = hash;
+        captureCount++;
+    }
+
+    /** Copies the rows queued this frame into the row cache, with one canvas snapshot for all of them. */
+    private void captureRows() {
+        if (captureCount == 0 || getScene() == null) {
+            captureCount = 0;
+            return;
+        }
+        int first = rows, last = -1;
+        for (int i = 0; i < captureCount; i++) {
+            first = Math.min(first, captureRows[i]);
+            last = Math.max(last, captureRows[i]);
+        }
+        double scale = renderScale();
+        double top = rowEdges[first];
+        captureImage = snapshotBand(top, rowEdges[last + 1] - top, scale, captureImage);
+        PixelReader reader = captureImage.getPixelReader();
+        int iw = (int) Math.ceil(getWidth() * scale);
+        for (int i = 0; i < captureCount; i++) {
+            int r = captureRows[i];
+            int y = (int) Math.round((rowEdges[r] - top) * scale);
+            int ih = (int) Math.round((rowEdges[r + 1] - top) * scale) - y;
+            if (ih <= 0) continue;
+            rowCache.put(viewRows[r], captureHashes[i], new WritableImage(reader, 0, y, iw, ih));
+        }
+        captureCount = 0;
+    }
+
+    private boolean isRowSelected(int r) {
+        Integer startRow = selection.startRow();
+        Integer endRow = selection.endRow();
+        return startRow != null && endRow != null && r >= Math.min(startRow, endRow) && r <= Math.max(startRow, endRow);
+    }
+
+    /**
+     * Marks the cells of each display row that differ from what was shown last frame. Rows whose array
+     * is unchanged cost one comparison; changed screen rows take the spans accumulated since the shown
+     * version ({@code useBufferDamage}), so skipped versions need no diff. Only history rows, a reset
+     * view or a blitted band compare cells.
+     */
+    private void collectDamage(boolean useBufferDamage) {
+        ScreenSnapshot snapshot = viewSnapshot;
+        boolean exact = useBufferDamage && shownVersion >= 0 && damageBaseVersion == shownVersion
+                && viewportOffset == shownViewportOffset;
+        for (int r = 0; r < viewRows.length; r++) {
+            long[] line = viewRows[r];
+            long[] shown = shownRows[r];
+            if (line == shown) continue;
+            int s = r - viewportOffset;
+            if (exact && s >= 0) {
+                dirty.markCellsDirty(r, damageFrom[s], damageTo[s]);   // clean rows (from > to) are ignored
+            } else if (shown == null || shown.length != line.length) {
+                dirty.markRowDirty(r);
+            } else {
+                int from = Arrays.mismatch(shown, line);
+                if (from >= 0) {
+                    int to = line.length - 1;
+                    while (to > from && shown[to] == line[to]) to--;
+                    dirty.markCellsDirty(r, from, to);
+                }
+            }
+            shownRows[r] = line;
+        }
+        shownVersion = snapshot.getVersion();
+        shownViewportOffset = viewportOffset;
     }
 
     public void updateScreen() {
@@ -145,97 +396,74 @@ public class TerminalCanvas extends Canvas {
             Platform.runLater(this::updateScreen);
             return;
         }
-        ensureBuffersSize();
+        refreshViewRows();
         recalcCellDimensions(false);
         recomputeRowEdges();
 
-        final int rows = screenBuffer.getRows();
-        final int cols = screenBuffer.getColumns();
         final GraphicsContext gc = getGraphicsContext2D();
         gc.setTextAlign(TextAlignment.CENTER);
 
-        for (int r = 0; r < rows; r++) {
-            if (dirty.isRowDirty(r)) continue;
-            for (int c = 0; c < cols; c++) {
-                Cell cell = screenBuffer.getVisibleCell(r, c);
-                String ch = cell.character();
-                int stId = styles.styleIdFor(cell.style());
-                if (!Objects.equals(ch, lastChars[r][c]) || stId != lastStyleIds[r][c]) {
-                    markRowDirty(r);
-                    break;
-                }
-            }
-        }
+        // After a blit the snapshot spans (full rows for a scroll) are stale; compare rows instead
+        collectDamage(!blitScroll(gc));
 
         if (cursorVisible != prevCursorVisible || cursorRow != prevCursorRow || cursorCol != prevCursorCol) {
-            markRowDirty(prevCursorRow);
-            markRowDirty(cursorRow);
+            markCursorDirty(prevCursorRow, prevCursorCol);
+            markCursorDirty(cursorRow, cursorCol);
         }
 
-        List<int[]> bands = new ArrayList<>();
-        for (int r = 0; r < rows; ) {
-            if (!dirty.isRowDirty(r)) { r++; continue; }
-            int start = r;
-            while (r < rows && dirty.isRowDirty(r)) r++;
-            int end = r - 1;
-
-            int ns = Math.max(0, start - 1);
-            int ne = Math.min(rows - 1, end + 1);
-
-            if (!bands.isEmpty()) {
-                int[] last = bands.getLast();
-                if (ns <= last[1] + 1) {
-                    last[1] = Math.max(last[1], ne);
-                } else {
-                    bands.add(new int[]{ns, ne});
+        double scale = renderScale();
+        rowCache.ensureCurrent(cellWidth, cellHeight, cols, scale);
+        for (int r = 0; r < rows; r++) {
+            if (!dirty.isRowDirty(r)) continue;
+            int from = Math.max(0, dirty.dirtyFrom(r) - OVERHANG_CELLS);
+            int to = Math.min(cols - 1, dirty.dirtyTo(r) + OVERHANG_CELLS);
+            long[] line = viewRows[r];
+
+            // Whole rows seen before come from the row cache (selected rows carry an overlay)
+            long hash = 0;
+            boolean wholeRow = from == 0 && to == cols - 1 && !isRowSelected(r);
+            if (wholeRow) {
+                hash = RowImageCache.hash(line);
+                Image cached = rowCache.lookup(line, hash);
+                if (cached != null) {
+                    double y0 = rowEdges[r];
+                    double y1 = (r == rows - 1) ? getHeight() : rowEdges[r + 1];
+                    gc.clearRect(0, y0, getWidth(), y1 - y0);
+                    gc.drawImage(cached, 0, y0, getWidth(), y1 - y0);
+                    dirty.clearRow(r);
+                    continue;
                 }
-            } else {
-                bands.add(new int[]{ns, ne});
             }
-        }
-
-        if (bands.isEmpty()) {
-            prevCursorRow = cursorRow;
-            prevCursorCol = cursorCol;
-            prevCursorVisible = cursorVisible;
-            return;
-        }
-
-        for (int[] band : bands) {
-            int start = band[0];
-            int end = band[1];
 
-            double y0 = Math.max(0, Math.floor(rowEdges[start]) - 1);
-            double y1 = Math.min(getHeight(), Math.ceil(rowEdges[end + 1]) + 1);
-            double bandH = y1 - y0;
+            double x0 = Math.floor(from * cellWidth);
+            double x1 = (to == cols - 1) ? getWidth() : Math.ceil((to + 1) * cellWidth);
+            double y0 = rowEdges[r];
+            double y1 = (r == rows - 1) ? getHeight() : rowEdges[r + 1];
 
-            gc.clearRect(0, y0, getWidth(), bandH);
+            gc.clearRect(x0, y0, x1 - x0, y1 - y0);
 
             gc.save();
             gc.beginPath();
-            gc.rect(0, y0, getWidth(), bandH);
+            gc.rect(x0, y0, x1 - x0, y1 - y0);
             gc.clip();
 
-
-            for (int r = start; r <= end; r++) {
-                renderer.renderBackgroundRuns(gc, screenBuffer, r, cellWidth, cellHeight, getWidth(), getHeight());
-                renderer.renderSelectionOverlay(gc, r, cellWidth, cellHeight, screenBuffer.getColumns());
-                renderer.renderTextAndUnderline(gc, screenBuffer, r, cellWidth, cellHeight);
-                renderer.renderBoxChars(gc, screenBuffer, r, cellWidth, cellHeight);
-
-
-                for (int c = 0; c < cols; c++) {
-                    Cell cell = screenBuffer.getVisibleCell(r, c);
-                    lastChars[r][c] = cell.character();
-                    lastStyleIds[r][c] = styles.styleIdFor(cell.style());
-                }
-                dirty.clearRow(r);
-            }
+            renderer.renderBackgroundRuns(gc, line, r, from, to, cellWidth, cellHeight, getWidth(), getHeight());
+            renderer.renderSelectionOverlay(gc, r, cellWidth, cellHeight, cols);
+            renderer.renderTextAndUnderline(gc, line, r, from, to, cellWidth, cellHeight, scale);
+            renderer.renderBoxChars(gc, line, r, from, to, cellWidth, cellHeight);
 
             gc.restore();
+            dirty.clearRow(r);
+            if (wholeRow && rowCache.shouldCapture(line, hash)) {
+                queueCapture(r, hash);
+            }
         }
+        captureRows();                                   // before the cursor overlay is drawn
 
-        renderer.drawCursorOverlay(gc, screenBuffer, cursorVisible, cursorRow, cursorCol, cellWidth, cellHeight);
+        int shownCursorRow = cursorRow + viewportOffset;
+        if (cursorRow >= 0 && shownCursorRow < rows) {
+            renderer.drawCursorOverlay(gc, viewRows[shownCursorRow], cursorVisible, shownCursorRow, cursorCol, cellWidth, cellHeight);
+        }
 
         prevCursorRow = cursorRow;
         prevCursorCol = cursorCol;
@@ -267,10 +495,10 @@ public class TerminalCanvas extends Canvas {
         setOnMouseClicked(e -> {
             if (e.getButton() == MouseButton.PRIMARY) {
                 if (e.getClickCount() == 2) {
-                    selection.selectWordAt(e.getX(), e.getY(), cellWidth, cellHeight, screenBuffer, dirty);
+                    selection.selectWordAt(e.getX(), e.getY(), cellWidth, cellHeight, viewRows, dirty);
                     updateScreen();
                 } else if (e.getClickCount() == 3) {
-                    selection.selectRowAt(e.getY(), cellHeight, screenBuffer, dirty);
+                    selection.selectRowAt(e.getY(), cellHeight, rows, cols, dirty);
                     updateScreen();
                 }
             }
@@ -281,14 +509,31 @@ public class TerminalCanvas extends Canvas {
         });
     }
 
+    private void initScrollHandlers() {
+        setOnScroll(e -> {
+            if (e.getDeltaY() > 0) {
+                scrollViewport(WHEEL_LINES);
+            } else if (e.getDeltaY() < 0) {
+                scrollViewport(-WHEEL_LINES);
+            }
+            e.consume();
+        });
+    }
+
     private void initKeyHandlers() {
         addEventFilter(KeyEvent.KEY_PRESSED, e -> {
             if (contextMenu != null && contextMenu.isShowing()) {
                 e.consume();
                 return;
             }
-            if (e.isControlDown() && e.getCode() == KeyCode.C) {
-                String text = selection.getSelectedText(screenBuffer);
+            if (e.isShiftDown() && e.getCode() == KeyCode.PAGE_UP) {
+                scrollViewport(rows - 1);
+                e.consume();
+            } else if (e.isShiftDown() && e.getCode() == KeyCode.PAGE_DOWN) {
+                scrollViewport(-(rows - 1));
+                e.consume();
+            } else if (e.isControlDown() && e.getCode() == KeyCode.C) {
+                String text = selection.getSelectedText(viewRows);
                 if (!text.isEmpty()) {
                     ClipboardContent content = new ClipboardContent();
                     content.putString(text);
@@ -296,9 +541,12 @@ public class TerminalCanvas extends Canvas {
                 }
                 e.consume();
             } else if (e.isControlDown() && e.getCode() == KeyCode.A) {
-                selection.selectAll(screenBuffer.getRows(), screenBuffer.getColumns(), dirty);
+                selection.selectAll(rows, cols, dirty);
                 updateScreen();
                 e.consume();
+            } else if (viewportOffset > 0 && !e.getCode().isModifierKey()) {
+                // Typing goes to the host; show the live screen again
+                setViewportOffset(0);
             }
         });
     }
@@ -312,7 +560,7 @@ public class TerminalCanvas extends Canvas {
         MenuItem copyItem = new MenuItem();
         copyItem.setGraphic(copyContainer);
         copyItem.setOnAction(e -> {
-            String text = selection.getSelectedText(screenBuffer);
+            String text = selection.getSelectedText(viewRows);
             if (!text.isEmpty()) {
                 ClipboardContent content = new ClipboardContent();
                 content.putString(text);
@@ -320,7 +568,7 @@ public class TerminalCanvas extends Canvas {
             }
         });
         MenuItem selectAllItem = new MenuItem("Alles auswählen");
-        selectAllItem.setOnAction(e -> { selection.selectAll(screenBuffer.getRows(), screenBuffer.getColumns(), dirty); updateScreen(); });
+        selectAllItem.setOnAction(e -> { selection.selectAll(rows, cols, dirty); updateScreen(); });
         MenuItem clearSelItem = new MenuItem("Auswahl aufheben");
         clearSelItem.setOnAction(e -> { selection.clearSelection(dirty); updateScreen(); });
         contextMenu.getItems().addAll(copyItem, selectAllItem, clearSelItem);
@@ -340,12 +588,14 @@ public class TerminalCanvas extends Canvas {
     }
 
     public String getSelectedText() {
-        return selection.getSelectedText(screenBuffer);
+        return selection.getSelectedText(viewRows);
     }
 
     public void setCursorPosition(int row, int col) {
-        if (row != cursorRow) { markRowDirty(cursorRow); markRowDirty(row); }
-        if (col != cursorCol) { markRowDirty(cursorRow); markRowDirty(row); }
+        if (row != cursorRow || col != cursorCol) {
+            markCursorDirty(cursorRow, cursorCol);
+            markCursorDirty(row, col);
+        }
         this.cursorRow = row;
         this.cursorCol = col;
     }
@@ -353,7 +603,7 @@ public class TerminalCanvas extends Canvas {
     public void setCursorVisible(boolean visible) {
         if (this.cursorVisible != visible) {
             this.cursorVisible = visible;
-            markRowDirty(cursorRow);
+            markCursorDirty(cursorRow, cursorCol);
         }
     }
 }
@@ -1,40 +1,58 @@
 package org.msv.vt100.ui;
 
-import javafx.geometry.VPos;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import javafx.scene.text.TextAlignment;
 import org.msv.vt100.core.Cell;
-import org.msv.vt100.core.ScreenBuffer;
 
 final class TerminalRenderer {
     private static final Color SELECTION_OVERLAY = Color.web("#5D9DFF", 0.25);
 
+    // Box-drawing segments per code point of the U+2500 block: arms from the cell centre, plus weight.
+    private static final int LEFT = 1, RIGHT = 2, UP = 4, DOWN = 8, HEAVY = 16;
+    private static final int BOX_BASE = 0x2500;
+    private static final byte[] BOX_SEGMENTS = new byte[0x80];
+    static {
+        box('─', LEFT | RIGHT);        box('━', LEFT | RIGHT | HEAVY);
+        box('│', UP | DOWN);           box('┃', UP | DOWN | HEAVY);
+        box('┌', RIGHT | DOWN);        box('┏', RIGHT | DOWN | HEAVY);
+        box('┐', LEFT | DOWN);         box('┓', LEFT | DOWN | HEAVY);
+        box('└', UP | RIGHT);          box('┗', UP | RIGHT | HEAVY);
+        box('┘', UP | LEFT);           box('┛', UP | LEFT | HEAVY);
+        box('├', UP | DOWN | RIGHT);   box('┣', UP | DOWN | RIGHT | HEAVY);
+        box('┤', UP | DOWN | LEFT);    box('┫', UP | DOWN | LEFT | HEAVY);
+        box('┬', LEFT | RIGHT | DOWN); box('┳', LEFT | RIGHT | DOWN | HEAVY);
+        box('┴', LEFT | RIGHT | UP);   box('┻', LEFT | RIGHT | UP | HEAVY);
+        box('┼', LEFT | RIGHT | UP | DOWN);
+        box('╋', LEFT | RIGHT | UP | DOWN | HEAVY);
+    }
+
     private final StyleRegistry styles;
     private final SelectionModel selection;
-    private final FontManager fonts;
+    private final GlyphAtlas glyphs;
 
     TerminalRenderer(StyleRegistry styles, SelectionModel selection, FontManager fonts) {
         this.styles = styles;
         this.selection = selection;
-        this.fonts = fonts;
+        this.glyphs = new GlyphAtlas(fonts, styles);
     }
 
-    void renderBackgroundRuns(GraphicsContext gc, ScreenBuffer screenBuffer, int r,
+    /**
+     * Rows are passed as packed cells (see {@link Cell#pack(int, int)}); {@code r} is the display row.
+     * The render passes draw only columns {@code from..to} (inclusive); the caller clips to them.
+     */
+    void renderBackgroundRuns(GraphicsContext gc, long[] line, int r, int from, int to,
                               double cellWidth, double cellHeight,
                               double canvasW, double canvasH) {
-        int cols = screenBuffer.getColumns();
+        int cols = to + 1;
         double y = r * cellHeight;
 
-        int c = 0;
+        int c = from;
         while (c < cols) {
-            var cell = screenBuffer.getVisibleCell(r, c);
-            var sk = styles.styleKeyFor(cell.style());
+            StyleRegistry.StyleKey sk = styles.styleKeyFor(Cell.attrOf(line[c]));
             short bgIdx = sk.bgIdx;
             int start = c;
             while (c < cols) {
-                var next = screenBuffer.getVisibleCell(r, c);
-                if (styles.styleKeyFor(next.style()).bgIdx != bgIdx) break;
+                if (styles.styleKeyFor(Cell.attrOf(line[c])).bgIdx != bgIdx) break;
                 c++;
             }
             if (bgIdx >= 0) {
@@ -49,7 +67,7 @@ final class TerminalRenderer {
                 if (y0 < 0) y0 = 0;
                 if (y1 > canvasH) y1 = canvasH;
 
-                gc.setFill(styles.paletteColor(bgIdx));
+                gc.setFill(sk.bg);
                 gc.fillRect(x0, y0, x1 - x0, y1 - y0);
             }
         }
@@ -79,95 +97,111 @@ final class TerminalRenderer {
         gc.fillRect(x, y, w, h);
     }
 
-    void renderTextAndUnderline(GraphicsContext gc, ScreenBuffer screenBuffer, int r, double cellWidth, double cellHeight) {
-        gc.setTextAlign(TextAlignment.CENTER);
-        gc.setTextBaseline(VPos.CENTER);
+    /**
+     * Glyphs come from the {@link GlyphAtlas}, rasterized for {@code renderScale} device pixels per
+     * logical pixel; only underlines are stroked.
+     */
+    void renderTextAndUnderline(GraphicsContext gc, long[] line, int r, int from, int to,
+                                double cellWidth, double cellHeight, double renderScale) {
+        glyphs.ensureCurrent(cellWidth, cellHeight, renderScale);
 
-        int cols = screenBuffer.getColumns();
-        int c = 0;
+        int cols = to + 1;
+        int c = from;
         while (c < cols) {
-            Cell cell = screenBuffer.getVisibleCell(r, c);
-            String ch = cell.character();
-            if (isBoxDrawingChar(ch)) { c++; continue; }
+            if (isBoxDrawingChar(Cell.codePointOf(line[c]))) { c++; continue; }
 
-            StyleRegistry.StyleKey base = styles.styleKeyFor(cell.style());
+            StyleRegistry.StyleKey base = styles.styleKeyFor(Cell.attrOf(line[c]));
             int start = c;
             while (c < cols) {
-                Cell cur = screenBuffer.getVisibleCell(r, c);
-                String cc = cur.character();
-                if (isBoxDrawingChar(cc)) break;
-                StyleRegistry.StyleKey sk = styles.styleKeyFor(cur.style());
+                if (isBoxDrawingChar(Cell.codePointOf(line[c]))) break;
+                StyleRegistry.StyleKey sk = styles.styleKeyFor(Cell.attrOf(line[c]));
                 if (!sk.sameTextAttrs(base)) break;
                 c++;
             }
 
-            gc.setFont(base.isBold() ? fonts.bold() : fonts.normal());
-            var textColor = base.fgIdx >= 0 ? styles.paletteColor(base.fgIdx) : Color.TRANSPARENT;
-            gc.setFill(textColor);
+            if (base.fgIdx < 0) continue;                       // concealed
 
-            if (base.isUnderline() && base.fgIdx >= 0) {
+            if (base.isUnderline()) {
                 double uy = Math.floor((r + 1) * cellHeight) - 1.0;
                 gc.setLineWidth(1);
-                gc.setStroke(textColor);
+                gc.setStroke(base.fg);
                 gc.strokeLine(start * cellWidth, uy, c * cellWidth, uy);
             }
 
+            boolean bold = base.isBold();
+            double y = r * cellHeight;
             for (int k = start; k < c; k++) {
-                String s = screenBuffer.getVisibleCell(r, k).character();
-                if (s != null && !s.isBlank()) {
-                    double x = k * cellWidth + cellWidth / 2.0;
-                    double y = r * cellHeight + cellHeight / 2.0;
-                    gc.fillText(s, x, y);
+                int cp = Cell.codePointOf(line[k]);
+                if (!Character.isWhitespace(cp)) {
+                    glyphs.draw(gc, cp, bold, base.fgIdx, k * cellWidth, y);
                 }
             }
         }
     }
 
 
-    void renderBoxChars(GraphicsContext gc, ScreenBuffer screenBuffer, int r, double cellWidth, double cellHeight) {
-        int cols = screenBuffer.getColumns();
-        for (int c = 0; c < cols; c++) {
-            String ch = screenBuffer.getVisibleCell(r, c).character();
-            if (!isBoxDrawingChar(ch)) continue;
-            StyleRegistry.StyleKey sk = styles.styleKeyFor(screenBuffer.getVisibleCell(r, c).style());
-            if (ch.length() != 1) continue;
-
-            char cc = ch.charAt(0);
-            double x = c * cellWidth;
-            double y = r * cellHeight;
-
-            drawBoxCharacter(gc, cc, x, y, cellWidth, cellHeight, styles.paletteColor(sk.fgIdx));
+    /**
+     * Box-drawing cells of the span go into one path per colour and line weight, stroked once;
+     * a framed form costs one stroke per row instead of one per cell.
+     */
+    void renderBoxChars(GraphicsContext gc, long[] line, int r, int from, int to,
+                        double cellWidth, double cellHeight) {
+        Color color = null;
+        boolean heavy = false;
+        boolean open = false;
+        double y = r * cellHeight;
+        for (int c = from; c <= to; c++) {
+            int segments = boxSegments(Cell.codePointOf(line[c]));
+            if (segments == 0) continue;
+            StyleRegistry.StyleKey sk = styles.styleKeyFor(Cell.attrOf(line[c]));
+            if (sk.fgIdx < 0) continue;                         // concealed
+            boolean h = (segments & HEAVY) != 0;
+            if (open && (sk.fg != color || h != heavy)) {
+                gc.stroke();
+                open = false;
+            }
+            if (!open) {
+                color = sk.fg;
+                heavy = h;
+                gc.setStroke(color);
+                gc.setLineWidth(heavy ? 2.0 : 1.5);
+                gc.beginPath();
+                open = true;
+            }
+            appendBoxSegments(gc, segments, c * cellWidth, y, cellWidth, cellHeight);
         }
+        if (open) gc.stroke();
     }
 
-    void drawCursorOverlay(GraphicsContext gc, ScreenBuffer screenBuffer, boolean visible, int row, int col, double cellWidth, double cellHeight) {
-        if (!visible || row < 0 || col < 0) return;
-        Cell cell = screenBuffer.getVisibleCell(row, col);
-        StyleRegistry.StyleKey sk = styles.styleKeyFor(cell.style());
-        Color color = styles.paletteColor(sk.fgIdx);
+    void drawCursorOverlay(GraphicsContext gc, long[] line, boolean visible, int row, int col, double cellWidth, double cellHeight) {
+        if (!visible || row < 0 || col < 0 || col >= line.length) return;
+        StyleRegistry.StyleKey sk = styles.styleKeyFor(Cell.attrOf(line[col]));
         double x = col * cellWidth;
         double y = row * cellHeight;
-        gc.setFill(color);
+        gc.setFill(sk.fg);
+        // Kept inside the cell, so repainting the cell alone removes it again
         gc.fillRect(x, y, cellWidth, 1);
-        gc.fillRect(x, y + cellHeight, cellWidth, 1);
+        gc.fillRect(x, y + cellHeight - 1, cellWidth, 1);
         gc.fillRect(x, y, 1, cellHeight);
-        gc.fillRect(x + cellWidth, y, 1, cellHeight);
+        gc.fillRect(x + cellWidth - 1, y, 1, cellHeight);
+    }
+
+    private static boolean isBoxDrawingChar(int codePoint) {
+        return boxSegments(codePoint) != 0;
     }
 
-    private static boolean isBoxDrawingChar(String ch) {
-        if (ch == null || ch.length() != 1) return false;
-        char c = ch.charAt(0);
-        String set = "┌┐└┘├┤┬┴┼│─┏┓┗┛┣┫┳┻╋┃━";
-        return set.indexOf(c) >= 0;
+    private static void box(char c, int segments) {
+        BOX_SEGMENTS[c - BOX_BASE] = (byte) segments;
     }
 
-    private static void drawBoxCharacter(GraphicsContext gc,
-                                         char c, double x, double y, double w, double h,
-                                         Color lineColor) {
-        gc.setStroke(lineColor);
-        double lw = (c == '━' || c == '┃' || c == '╋' || c == '┳' || c == '┻' || c == '┫' || c == '┣' || c == '┏' || c == '┓' || c == '┗' || c == '┛') ? 2.0 : 1.5;
-        gc.setLineWidth(lw);
+    /** Segment mask of a box-drawing code point ({@link #LEFT} .. {@link #HEAVY}), 0 for other characters. */
+    private static int boxSegments(int codePoint) {
+        int i = codePoint - BOX_BASE;
+        return (i >= 0 && i < BOX_SEGMENTS.length) ? BOX_SEGMENTS[i] : 0;
+    }
 
+    /** Adds the segments of one cell to the current path; each arm runs from the cell centre to an edge. */
+    private static void appendBoxSegments(GraphicsContext gc, int segments, double x, double y, double w, double h) {
         double left = Math.floor(x) + 0.5;
         double top = Math.floor(y) + 0.5;
         double right = Math.floor(x + w) - 0.5;
@@ -175,20 +209,13 @@ final class TerminalRenderer {
         double midX = Math.floor((x + x + w) / 2.0) + 0.5;
         double midY = Math.floor((y + y + h) / 2.0) + 0.5;
 
-        switch (c) {
-            case '─', '━' -> gc.strokeLine(left, midY, right, midY);
-            case '│', '┃' -> gc.strokeLine(midX, top, midX, bottom);
-            case '┌', '┏' -> { gc.strokeLine(midX, midY, right, midY); gc.strokeLine(midX, midY, midX, bottom); }
-            case '┐', '┓' -> { gc.strokeLine(left, midY, midX, midY); gc.strokeLine(midX, midY, midX, bottom); }
-            case '└', '┗' -> { gc.strokeLine(midX, top, midX, midY); gc.strokeLine(midX, midY, right, midY); }
-            case '┘', '┛' -> { gc.strokeLine(midX, top, midX, midY); gc.strokeLine(left, midY, midX, midY); }
-            case '├', '┣' -> { gc.strokeLine(midX, midY, right, midY); gc.strokeLine(midX, top, midX, bottom); }
-            case '┤', '┫' -> { gc.strokeLine(left, midY, midX, midY); gc.strokeLine(midX, top, midX, bottom); }
-            case '┬', '┳' -> { gc.strokeLine(left, midY, right, midY); gc.strokeLine(midX, midY, midX, bottom); }
-            case '┴', '┻' -> { gc.strokeLine(left, midY, right, midY); gc.strokeLine(midX, top, midX, midY); }
-            case '┼', '╋' -> { gc.strokeLine(left, midY, right, midY); gc.strokeLine(midX, top, midX, bottom); }
+        if ((segments & (LEFT | RIGHT)) != 0) {
+            gc.moveTo((segments & LEFT) != 0 ? left : midX, midY);
+            gc.lineTo((segments & RIGHT) != 0 ? right : midX, midY);
+        }
+        if ((segments & (UP | DOWN)) != 0) {
+            gc.moveTo(midX, (segments & UP) != 0 ? top : midY);
+            gc.lineTo(midX, (segments & DOWN) != 0 ? bottom : midY);
         }
     }
-
-
 }
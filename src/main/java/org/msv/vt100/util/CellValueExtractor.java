@@ -2,6 +2,7 @@ package org.msv.vt100.util;
 
 import org.msv.vt100.core.Cell;
 import org.msv.vt100.core.ScreenBuffer;
+import org.msv.vt100.core.ScreenSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.Arrays;
@@ -10,19 +11,28 @@ public class CellValueExtractor {
     private static final Logger logger = LoggerFactory.getLogger(CellValueExtractor.class);
 
     public static String extractCells(ScreenBuffer screenBuffer, int row, int... columnIndices) {
+        return extractCells(screenBuffer.snapshot(), row, columnIndices);
+    }
+
+    /**
+     * Reads the cells from one snapshot, so all columns come from the same screen. Row/columns are 1-based.
+     * For fixed fields and tables prefer {@link ScreenField} / {@link ScreenTable}.
+     */
+    public static String extractCells(ScreenSnapshot snapshot, int row, int... columnIndices) {
         int rowIndex = row - 1;
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(columnIndices.length);
         for (int col : columnIndices) {
             int colIndex = col - 1;
             try {
-                Cell cell = screenBuffer.getVisibleCell(rowIndex, colIndex);
-                sb.append(cell.character());
+                sb.appendCodePoint(Cell.codePointOf(snapshot.getPacked(rowIndex, colIndex)));
             } catch (IndexOutOfBoundsException e) {
                 logger.error("Ungültige Zellposition: Zeile {}, Spalte {}", row, col);
             }
         }
         String result = sb.toString();
-        logger.info("Zellwerte extrahiert (Zeile {}, Spalten {}) : {}", row, Arrays.toString(columnIndices), result);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Zellwerte extrahiert (Zeile {}, Spalten {}) : {}", row, Arrays.toString(columnIndices), result);
+        }
         return result;
     }
 }
\ No newline at end of file
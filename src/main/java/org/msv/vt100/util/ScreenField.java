@@ -0,0 +1,64 @@
+package org.msv.vt100.util;
+
+import org.msv.vt100.core.ScreenSnapshot;
+
+/**
+ * Named screen field: one row and a column span, 1-based and inclusive like the host manuals.
+ * Semantics:
+ * - {@link #read(ScreenSnapshot)} slices the cached row text of the snapshot; no per-cell work.
+ * - In a {@link ScreenTable} the row is an offset relative to the table line (0 = same line).
+ */
+public record ScreenField(String name, int row, int firstColumn, int lastColumn, Trim trim) {
+
+    public enum Trim {
+        /** Exactly the cells, including blanks. */
+        NONE,
+        /** Trailing blanks removed. */
+        TRAILING,
+        /** Leading and trailing blanks removed. */
+        BOTH
+    }
+
+    public ScreenField {
+        if (firstColumn < 1 || lastColumn < firstColumn) {
+            throw new IllegalArgumentException("Ungültiger Spaltenbereich für Feld " + name + ": " + firstColumn + ".." + lastColumn);
+        }
+    }
+
+    /** Field on a fixed screen row. */
+    public static ScreenField at(String name, int row, int firstColumn, int lastColumn, Trim trim) {
+        return new ScreenField(name, row, firstColumn, lastColumn, trim);
+    }
+
+    /** Table column on the table line itself. */
+    public static ScreenField column(String name, int firstColumn, int lastColumn, Trim trim) {
+        return new ScreenField(name, 0, firstColumn, lastColumn, trim);
+    }
+
+    /** Table column {@code rowOffset} lines below the table line. */
+    public static ScreenField column(String name, int rowOffset, int firstColumn, int lastColumn, Trim trim) {
+        return new ScreenField(name, rowOffset, firstColumn, lastColumn, trim);
+    }
+
+    public int width() {
+        return lastColumn - firstColumn + 1;
+    }
+
+    /** Reads the field from a fixed row. */
+    public String read(ScreenSnapshot snapshot) {
+        return readAt(snapshot, row);
+    }
+
+    /** Reads the field from 1-based screen row {@code screenRow}; empty if the row is off screen. */
+    String readAt(ScreenSnapshot snapshot, int screenRow) {
+        if (screenRow < 1 || screenRow > snapshot.getRows() || lastColumn > snapshot.getColumns()) {
+            return "";
+        }
+        String value = snapshot.getText(screenRow - 1, firstColumn - 1, lastColumn - 1);
+        return switch (trim) {
+            case NONE -> value;
+            case TRAILING -> value.stripTrailing();
+            case BOTH -> value.strip();
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package org.msv.vt100.util;
+
+import org.msv.vt100.core.ScreenSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table layout on the host screen: a range of lines and the {@link ScreenField} columns of each line.
+ * Semantics:
+ * - {@link #extract(ScreenSnapshot)} reads every line of one snapshot in a single pass, so all
+ *   values come from the same screen.
+ * - Column rows are offsets relative to the table line (e.g. 1 for a value printed below it).
+ */
+public final class ScreenTable {
+
+    private final int firstLine;
+    private final int lastLine;
+    private final ScreenField[] columns;
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+
+    /** @param firstLine first table line (1-based) @param lastLine last table line (1-based, inclusive) */
+    public ScreenTable(int firstLine, int lastLine, ScreenField... columns) {
+        if (firstLine < 1 || lastLine < firstLine) {
+            throw new IllegalArgumentException("Ungültiger Zeilenbereich: " + firstLine + ".." + lastLine);
+        }
+        this.firstLine = firstLine;
+        this.lastLine = lastLine;
+        this.columns = columns.clone();
+        for (int i = 0; i < columns.length; i++) {
+            columnIndex.put(columns[i].name(), i);
+        }
+    }
+
+    public int getFirstLine() {
+        return firstLine;
+    }
+
+    public int getLastLine() {
+        return lastLine;
+    }
+
+    /** Reads all table lines from one snapshot. */
+    public List<Line> extract(ScreenSnapshot snapshot) {
+        List<Line> result = new ArrayList<>(lastLine - firstLine + 1);
+        for (int line = firstLine; line <= lastLine; line++) {
+            result.add(readLine(snapshot, line));
+        }
+        return result;
+    }
+
+    /** Reads one table line (1-based screen row). */
+    public Line readLine(ScreenSnapshot snapshot, int line) {
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i].readAt(snapshot, line + columns[i].row());
+        }
+        return new Line(this, line, values);
+    }
+
+    private int indexOf(ScreenField field) {
+        Integer i = columnIndex.get(field.name());
+        if (i == null || !columns[i].equals(field)) {
+            throw new IllegalArgumentException("Feld gehört nicht zur Tabelle: " + field.name());
+        }
+        return i;
+    }
+
+    /** Values of one table line. */
+    public static final class Line {
+        private final ScreenTable table;
+        private final int line;
+        private final String[] values;
+
+        private Line(ScreenTable table, int line, String[] values) {
+            this.table = table;
+            this.line = line;
+            this.values = values;
+        }
+
+        /** 1-based screen row of this table line. */
+        public int line() {
+            return line;
+        }
+
+        public String get(ScreenField field) {
+            return values[table.indexOf(field)];
+        }
+    }
+}